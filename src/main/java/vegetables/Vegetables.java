@@ -1,9 +1,18 @@
 package vegetables;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicReference;
 
 import vegetables.command.CommandHandler;
+import vegetables.manager.ReminderScheduler;
 import vegetables.manager.TaskManager;
 import vegetables.storage.TaskStorage;
 import vegetables.task.Task;
@@ -13,32 +22,82 @@ import vegetables.task.Task;
  * marking, unmarking, deleting, and finding tasks.
  * Tasks can be of type ToDo, Deadline, or Event.
  * The program uses a file to persist tasks between sessions.
+ * <p>
+ * Commands are read one per line and their responses written in order. Changes are saved in the
+ * background while the next command runs, and responses are buffered until no more input is waiting,
+ * so a long stream of commands piped in is not held up by the console or by saving after each one.
+ * Reminders for due deadlines and starting events are printed as they come, between responses.
+ * </p>
  */
 public class Vegetables {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
     /**
      * Starts the Vegetables program.
-     * Processes user input until the user exits the program.
+     * Processes user input until the user exits the program or the input ends.
      * Initializes task storage, task manager, and command handler.
      *
      * @param args Command-line arguments (not used).
+     * @throws IOException If the commands cannot be read.
      */
-    public static void main(String[] args) {
-        Scanner scanner = new Scanner(System.in);
+    public static void main(String[] args) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        PrintWriter writer = new PrintWriter(new BufferedWriter(
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8), OUTPUT_BUFFER_SIZE));
 
         TaskStorage taskStorage = new TaskStorage();
         ArrayList<Task> tasks = taskStorage.loadTasks();
         TaskManager taskManager = new TaskManager(tasks);
 
         CommandHandler commandHandler = new CommandHandler(taskManager, taskStorage);
+        commandHandler.setSavingInBackground(true);
+
+        // Edits made to the task file by other programs are applied before the next command
+        AtomicReference<ArrayList<Task>> externalChanges = new AtomicReference<>();
+        try {
+            taskStorage.watch(externalChanges::set);
+        } catch (IOException e) {
+            writer.println("Could not watch the task file for changes: " + e.getMessage());
+        }
+        // Lines of the task file that could not be loaded are reported before the first command
+        writer.print(commandHandler.takeWarnings());
+        writer.flush();
 
-        while (true) {
-            String userInput = scanner.nextLine();
+        ReminderScheduler reminderScheduler = new ReminderScheduler(taskManager, Clock.systemDefaultZone(),
+                reminder -> {
+                    synchronized (writer) {
+                        writer.println(reminder);
+                        writer.flush();
+                    }
+                });
 
-            commandHandler.executeCommand(userInput);
-            if (userInput.equalsIgnoreCase("bye")) {
+        String userInput;
+        while ((userInput = reader.readLine()) != null) {
+            ArrayList<Task> reloaded = externalChanges.getAndSet(null);
+            if (reloaded != null) {
+                taskManager.reconcile(reloaded);
+                taskStorage.markApplied(reloaded);
+            }
+            // A reminder waits until the whole response is written
+            synchronized (writer) {
+                commandHandler.streamCommand(userInput, writer::print);
+                writer.println();
+                // Someone typing sees each response at once; piped commands are answered in batches
+                if (commandHandler.isShutDown() || !reader.ready()) {
+                    writer.flush();
+                }
+            }
+            if (commandHandler.isShutDown()) {
                 break; // Exit the program
             }
         }
-        scanner.close();
+
+        // The input may end without "bye"; the tasks are still saved before exiting
+        commandHandler.shutdown();
+        reminderScheduler.close();
+        synchronized (writer) {
+            writer.print(commandHandler.takeWarnings());
+            writer.flush();
+        }
     }
 }
@@ -14,6 +14,13 @@ public enum Command {
     UNMARK,
     FIND,
     DELETE,
+    UPCOMING,
+    SCHEDULE,
+    CONFLICTS,
+    ARCHIVE,
+    ARCHIVED,
+    UNDO,
+    REDO,
     BYE,
     UNKNOWN;
 
@@ -43,10 +50,24 @@ public enum Command {
             return FIND;
         } else if (lowerInput.startsWith("delete")) {
             return DELETE;
+        } else if (lowerInput.startsWith("archived")) {
+            return ARCHIVED;
+        } else if (lowerInput.equals("archive")) {
+            return ARCHIVE;
+        } else if (lowerInput.startsWith("schedule")) {
+            return SCHEDULE;
+        } else if (lowerInput.startsWith("upcoming")) {
+            return UPCOMING;
+        } else if (lowerInput.equals("conflicts")) {
+            return CONFLICTS;
         } else if (lowerInput.equals("help")) {
             return HELP;
         } else if (lowerInput.equals("list")) {
             return LIST;
+        } else if (lowerInput.equals("undo")) {
+            return UNDO;
+        } else if (lowerInput.equals("redo")) {
+            return REDO;
         } else if (lowerInput.equals("bye")) {
             return BYE;
         } else {
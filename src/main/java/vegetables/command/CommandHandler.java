@@ -1,13 +1,22 @@
 package vegetables.command;
 
+import java.time.Clock;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import vegetables.exception.VeggieException;
+import vegetables.manager.EventConflict;
 import vegetables.manager.TaskManager;
+import vegetables.search.SearchQuery;
 import vegetables.storage.TaskStorage;
+import vegetables.task.Occurrence;
+import vegetables.task.Recurrence;
 import vegetables.task.Task;
 
 
@@ -18,8 +27,18 @@ import vegetables.task.Task;
  * and saving/loading tasks to/from a file.
  */
 public class CommandHandler {
+    private static final int STREAM_CHUNK_LINES = 200;
+    private static final String LIST_HEADER = "🌅 Here are the crops we've harvested so far: 🌾\n";
+    private static final String FIND_HEADER = "\uD83D\uDD0D Searching through the garden beds "
+            + "for your tasks... Here's what I found!\n";
+
     private final TaskManager taskManager;
     private final TaskStorage taskStorage;
+    private final Clock clock;
+    private final ResultCache resultCache = new ResultCache();
+    private boolean isShutDown;
+    private boolean isSavingInBackground;
+    private String saveError;
 
     /**
      * Constructs a CommandHandler instance with the specified TaskManager and TaskStorage.
@@ -28,11 +47,25 @@ public class CommandHandler {
      * @param taskStorage The TaskStorage used for saving and loading tasks from a file.
      */
     public CommandHandler(TaskManager taskManager, TaskStorage taskStorage) {
+        this(taskManager, taskStorage, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs a CommandHandler that reads the current time from the given clock, e.g. a fixed clock
+     * for tests and benchmarks that must not depend on when they run.
+     *
+     * @param taskManager The TaskManager that handles task-related operations.
+     * @param taskStorage The TaskStorage used for saving and loading tasks from a file.
+     * @param clock The clock used to reject past deadlines and events, and to find upcoming and archivable tasks.
+     */
+    public CommandHandler(TaskManager taskManager, TaskStorage taskStorage, Clock clock) {
         assert taskManager != null : "TaskManager should not be null";
         assert taskStorage != null : "TaskStorage should not be null";
+        assert clock != null : "Clock should not be null";
 
         this.taskManager = taskManager;
         this.taskStorage = taskStorage;
+        this.clock = clock;
     }
 
     /**
@@ -47,11 +80,21 @@ public class CommandHandler {
      *     <li><b>"todo [description]"</b> - Adds a new to-do task.</li>
      *     <li><b>"deadline [description] /by [date]"</b> - Adds a new deadline task.</li>
      *     <li><b>"event [description] /at [date]"</b> - Adds a new event task.</li>
+     *     <li><b>"... /every [rule]"</b> - Makes a new deadline or event task repeat.</li>
+     *     <li><b>"upcoming [days]"</b> - Lists deadlines and events in the next few days.</li>
+     *     <li><b>"schedule [from] [to]"</b> - Lists deadlines and events between two dates.</li>
+     *     <li><b>"conflicts"</b> - Lists every pair of events that overlap.</li>
+     *     <li><b>"archive"</b> - Moves done tasks and past events to the archive.</li>
+     *     <li><b>"archived [keyword]"</b> - Searches the archive.</li>
      *     <li><b>"mark [task number]"</b> - Marks a task as completed.</li>
      *     <li><b>"unmark [task number]"</b> - Marks a task as incomplete.</li>
      *     <li><b>"find [keyword]"</b> - Searches for tasks containing the given keyword.</li>
      *     <li><b>"delete [task number]"</b> - Removes a task from the list.</li>
-     *     <li><b>"bye"</b> - Saves tasks and exits the application.</li>
+     *     <li><b>"mark/unmark/delete [numbers]"</b> - Applies to several tasks, e.g. "3,7,9", "10-500"
+     *     or "done".</li>
+     *     <li><b>"undo"</b> - Reverts the most recent change to the list.</li>
+     *     <li><b>"redo"</b> - Re-applies the most recently undone change.</li>
+     *     <li><b>"bye"</b> - Saves tasks and shuts down; see {@link #shutdown()}.</li>
      * </ul>
      * <p>
      * If the input does not match any known command, an error message is returned.
@@ -66,7 +109,8 @@ public class CommandHandler {
         Command command = Command.fromInput(userInput);
         assert command != null : "Command should not be null";
 
-        return switch (command) {
+        String previousProblems = takeWarnings() + takeSaveError();
+        return previousProblems + switch (command) {
         case HELP -> displayHelp();
         case LIST -> listTasks();
         case TODO -> handleAddToDo(userInput);
@@ -74,27 +118,191 @@ public class CommandHandler {
         case EVENT -> handleAddEvent(userInput, taskManager);
         case MARK -> handleMarkTask(userInput);
         case UNMARK -> handleUnmarkTask(userInput);
-        case FIND -> handleFindTask(userInput);
+        case FIND -> readCached(ResultCache.keyOf(userInput), () -> handleFindTask(userInput));
         case DELETE -> handleDeleteTask(userInput);
-        case BYE -> {
-            handleExit();
-            yield "";
-        }
+        case UPCOMING -> handleUpcoming(userInput);
+        case SCHEDULE -> handleSchedule(userInput);
+        case CONFLICTS -> handleConflicts();
+        case ARCHIVE -> handleArchive();
+        case ARCHIVED -> handleFindArchived(userInput);
+        case UNDO -> handleUndo();
+        case REDO -> handleRedo();
+        case BYE -> handleExit();
         default -> "Unrecognised command!";
         };
     }
 
-    private void handleExit() {
-        taskStorage.saveTasks(taskManager.getTasks());
-        assert taskManager.getTasks() != null : "Task list should not be null after saving";
-        String result = "Bye. Hope to see you again soon!";
-        System.out.println(result);
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    /**
+     * Executes a command like {@link #executeCommand(String)}, handing its response to the sink in pieces.
+     * <p>
+     * The results of "list" and "find" are sent a few hundred tasks at a time as they are formatted, so a
+     * frontend can show the first tasks of a long list without waiting for the rest. Other commands send
+     * their whole response at once. Joining the pieces gives the same text as {@link #executeCommand(String)}.
+     * Both commands share the response cache of {@link #executeCommand(String)}: a response that is still
+     * current is sent in one piece, as it is already formatted, and one that is streamed is cached for next time.
+     * </p>
+     *
+     * @param userInput The command input provided by the user.
+     * @param sink Receives the pieces of the response, in order.
+     */
+    public void streamCommand(String userInput, Consumer<String> sink) {
+        assert userInput != null : "User input should not be null";
+
+        String previousProblems = takeWarnings() + takeSaveError();
+        if (!previousProblems.isEmpty()) {
+            sink.accept(previousProblems);
+        }
+
+        switch (Command.fromInput(userInput)) {
+        case LIST -> streamCached("list", sink,
+                piece -> writeTaskList(LIST_HEADER, "No tasks added.\n", taskManager.getTasks(), piece));
+        case FIND -> streamCached(ResultCache.keyOf(userInput), sink, piece -> {
+            try {
+                writeTaskList(FIND_HEADER, "No matching tasks found.\n", findMatchingTasks(userInput), piece);
+            } catch (VeggieException e) {
+                piece.accept("Error: " + e.getMessage());
+            }
+        });
+        default -> sink.accept(executeCommand(userInput));
+        }
+    }
+
+    /**
+     * Sends the cached response for the key if it is still current, or else streams the response as it is
+     * written and caches it once complete.
+     */
+    private void streamCached(String key, Consumer<String> sink, Consumer<Consumer<String>> write) {
+        long version = taskManager.getVersion();
+        String cached = resultCache.get(key, version);
+        if (cached != null) {
+            sink.accept(cached);
+            return;
+        }
+        StringBuilder response = new StringBuilder();
+        write.accept(piece -> {
+            response.append(piece);
+            sink.accept(piece);
+        });
+        resultCache.put(key, version, response.toString());
+    }
+
+    /**
+     * Writes a numbered list of tasks to the sink, {@value #STREAM_CHUNK_LINES} tasks at a time.
+     */
+    private static void writeTaskList(String header, String emptyMessage, List<Task> tasks, Consumer<String> sink) {
+        assert tasks != null : "Task list should not be null";
+        if (tasks.isEmpty()) {
+            sink.accept(emptyMessage);
+            return;
+        }
+        StringBuilder chunk = new StringBuilder(header);
+        for (int i = 0; i < tasks.size(); i++) {
+            assert tasks.get(i) != null : "Task should not be null";
+            // Add 1 for 1-indexing
+            chunk.append(i + 1).append('.').append(tasks.get(i)).append('\n');
+            if ((i + 1) % STREAM_CHUNK_LINES == 0) {
+                sink.accept(chunk.toString());
+                chunk.setLength(0);
+            }
+        }
+        if (chunk.length() > 0) {
+            sink.accept(chunk.toString());
+        }
+    }
+
+    /**
+     * Chooses whether changes are saved before each command returns, the default, or on a background thread.
+     * <p>
+     * In the background, the save of one change overlaps with the following commands, and a change
+     * overtaken by another before it is written is not written on its own. The tasks are fully saved
+     * by {@link #shutdown()}. Either way, if a save fails, the error is put before the response to the
+     * next command, so that it is shown in order with the other output.
+     * </p>
+     *
+     * @param isSavingInBackground Whether to save changes on a background thread.
+     */
+    public void setSavingInBackground(boolean isSavingInBackground) {
+        this.isSavingInBackground = isSavingInBackground;
+    }
+
+    private void saveTasks() {
+        if (isSavingInBackground) {
+            taskStorage.saveLatestAsync(taskManager.snapshot());
+            return;
+        }
+        String result = taskStorage.saveTasks(taskManager.getTasks());
+        if (result != null && !TaskStorage.isSaved(result)) {
+            saveError = result;
+        }
+    }
+
+    /**
+     * Returns the error of a failed save followed by a newline, or an empty string if there is none.
+     */
+    private String takeSaveError() {
+        String error = saveError;
+        saveError = null;
+        if (error == null && isSavingInBackground) {
+            error = taskStorage.takeBackgroundSaveError();
+        }
+        if (error == null) {
+            return "";
+        }
+        // A save refused over another program's edit leaves the change to be made again, not kept
+        return TaskStorage.EXTERNAL_CHANGE_MESSAGE.equals(error)
+                ? error + "\n"
+                : error + " Your latest changes are only kept in memory for now.\n";
+    }
+
+    /**
+     * Returns the problems met by the task storage since the last call that did not stop it loading or saving,
+     * such as lines of the task file that could not be parsed, one per line, or an empty string if there are none.
+     * <p>
+     * They are put before the response to the next command, so frontends only need to call this for
+     * problems met when there is no next command, e.g. while loading or after {@link #shutdown()}.
+     * </p>
+     *
+     * @return The problems, each followed by a newline.
+     */
+    public String takeWarnings() {
+        StringBuilder warnings = new StringBuilder();
+        for (String warning : taskStorage.takeWarnings()) {
+            warnings.append(warning).append('\n');
         }
-        System.exit(0);
+        return warnings.toString();
+    }
+
+    private String handleExit() {
+        shutdown();
+        return takeWarnings() + "Bye. Hope to see you again soon!";
+    }
+
+    /**
+     * Saves the task list, finishes any saves still in progress and stops the background work of the task
+     * manager and storage, then returns.
+     * <p>
+     * Exiting is left to the caller, which can do so as soon as this method returns. Calling it again has no
+     * effect.
+     * </p>
+     */
+    public void shutdown() {
+        if (isShutDown) {
+            return;
+        }
+        isShutDown = true;
+        // Saves still queued in the background hold older versions, so they are written first
+        taskStorage.shutdown();
+        taskStorage.saveTasks(taskManager.getTasks());
+        taskManager.closeChanges();
+    }
+
+    /**
+     * Returns whether {@link #shutdown()} has run, e.g. because the user said "bye".
+     *
+     * @return true if the application should now exit.
+     */
+    public boolean isShutDown() {
+        return isShutDown;
     }
 
     private String displayHelp() {
@@ -102,28 +310,44 @@ public class CommandHandler {
                 + " - todo [Task description]: Adds a task without a deadline.\n"
                 + " - deadline [Task description] /by [Date/time]: Adds a task with a deadline.\n"
                 + " - event [Task description] /from [Start time] /to [End time]: Adds an event task.\n"
+                + " - add /every [daily|weekly|monthly] (/until [Date/time]) to a deadline or event to repeat it.\n"
                 + " - list: Displays all tasks in the list.\n"
                 + " - mark [Task number]: Marks a task as done.\n"
                 + " - unmark [Task number]: Unmarks a task as not done.\n"
                 + " - find [Keyword]: Finds a task by its keyword.\n"
+                + " - find also takes AND, OR, NOT/-word, ~fuzzy, prefix*, type:, done:yes|no, from: and to: dates.\n"
                 + " - delete [Task number]: Deletes a task from the list.\n"
+                + " - mark/unmark/delete also take lists and ranges (3,7,9 or 10-500); delete done clears done tasks.\n"
+                + " - upcoming [Days]: Lists deadlines and events in the next few days.\n"
+                + " - schedule [From] [To]: Lists deadlines and events between two dates or times.\n"
+                + " - conflicts: Lists every pair of events that overlap.\n"
+                + " - archive: Moves done tasks and past events to the archive.\n"
+                + " - archived [Keyword]: Searches the archive.\n"
+                + " - undo: Reverts the most recent change.\n"
+                + " - redo: Re-applies the most recently undone change.\n"
                 + " - bye: Exits the program.\n";
     }
 
+    /**
+     * Returns the response of a read-only command, rendering it only if the tasks changed since it was last rendered.
+     */
+    private String readCached(String key, Supplier<String> render) {
+        long version = taskManager.getVersion();
+        String response = resultCache.get(key, version);
+        if (response == null) {
+            response = render.get();
+            resultCache.put(key, version, response);
+        }
+        return response;
+    }
+
     private String listTasks() {
+        return readCached("list", this::renderTaskList);
+    }
+
+    private String renderTaskList() {
         StringBuilder result = new StringBuilder();
-        ArrayList<Task> tasks = taskManager.getTasks();
-        assert tasks != null : "Task list should not be null";
-        if (tasks.isEmpty()) {
-            result.append("No tasks added.\n");
-        } else {
-            result.append("🌅 Here are the crops we've harvested so far: 🌾\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                assert tasks.get(i) != null : "Task should not be null";
-                // Add 1 for 1-indexing
-                result.append((i + 1) + "." + tasks.get(i) + "\n");
-            }
-        }
+        writeTaskList(LIST_HEADER, "No tasks added.\n", taskManager.getTasks(), result::append);
         return result.toString();
     }
 
@@ -141,12 +365,14 @@ public class CommandHandler {
             return "Duplicate task detected! Task already exists.";
         }
         taskManager.addToDoTask(taskDescription);
-        taskStorage.saveTasks(taskManager.getTasks());
+        saveTasks();
         return "\uD83C\uDF3B Great! You've planted a new to-do task: " + taskDescription;
     }
 
     private String handleAddDeadline(String userInput) {
         try {
+            Recurrence recurrence = parseRecurrence(userInput);
+            userInput = removeRecurrence(userInput);
             if (!userInput.contains("/by")) {
                 throw new VeggieException("Correct format: deadline [Task description] /by [yyyy-MM-dd HH:mm]");
             }
@@ -163,17 +389,22 @@ public class CommandHandler {
 
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
             LocalDateTime deadlineDateTime = LocalDateTime.parse(by, formatter);
-            if (deadlineDateTime.isBefore(LocalDateTime.now())) {
+            if (deadlineDateTime.isBefore(LocalDateTime.now(clock))) {
                 return "Error: Deadline cannot be in the past!";
             }
             if (taskManager.taskExists(taskDescription)) {
                 return "Duplicate task detected! Task already exists.";
             }
 
-            taskManager.addDeadlineTask(taskDescription, by);
-            taskStorage.saveTasks(taskManager.getTasks());
+            if (recurrence == null) {
+                taskManager.addDeadlineTask(taskDescription, by);
+            } else {
+                taskManager.addRecurringDeadlineTask(taskDescription, by, recurrence);
+            }
+            saveTasks();
 
-            return "\uD83C\uDF3E Great! You've planted a new deadline task: " + taskDescription;
+            return "\uD83C\uDF3E Great! You've planted a new deadline task: " + taskDescription
+                    + describeRecurrence(recurrence);
         } catch (DateTimeParseException e) {
             return "Error: Invalid time or time format. Use: yyyy-MM-dd HH:mm";
         } catch (VeggieException | IndexOutOfBoundsException e) {
@@ -183,6 +414,8 @@ public class CommandHandler {
 
     private String handleAddEvent(String userInput, TaskManager taskManager) {
         try {
+            Recurrence recurrence = parseRecurrence(userInput);
+            userInput = removeRecurrence(userInput);
             if (!userInput.contains("/from") || !userInput.contains("/to")) {
                 throw new VeggieException("Correct format: event [Task description] /from [Start time] /to [End time]");
             }
@@ -203,7 +436,8 @@ public class CommandHandler {
 
             // Check for event clash using the abstracted method
             StringBuilder warningMessage = taskManager.checkEventClash(fromDateTime, toDateTime);
-            if (fromDateTime.isBefore(LocalDateTime.now()) || toDateTime.isBefore(LocalDateTime.now())) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            if (fromDateTime.isBefore(now) || toDateTime.isBefore(now)) {
                 return "Error: Event times cannot be in the past!";
             }
             if (fromDateTime.isAfter(toDateTime)) {
@@ -212,15 +446,20 @@ public class CommandHandler {
             if (taskManager.taskExists(taskDescription)) {
                 return "Duplicate task detected! Task already exists.";
             }
-            taskManager.addEventTask(taskDescription, from, to);
-            taskStorage.saveTasks(taskManager.getTasks());
+            if (recurrence == null) {
+                taskManager.addEventTask(taskDescription, from, to);
+            } else {
+                taskManager.addRecurringEventTask(taskDescription, from, to, recurrence);
+            }
+            saveTasks();
 
             if (warningMessage != null) {
                 return "Event added with a warning:\n" + warningMessage
-                        + "\nNew event added: " + taskDescription
+                        + "\nNew event added: " + taskDescription + describeRecurrence(recurrence)
                         + "\nNow you have " + taskManager.getTasks().size() + " tasks in the list.";
             } else {
                 return "\uD83C\uDF3B Great! You've planted a new event task: \n" + taskDescription
+                        + describeRecurrence(recurrence)
                         + "\nNow you have " + taskManager.getTasks().size() + " tasks in the list.";
             }
 
@@ -231,11 +470,148 @@ public class CommandHandler {
         }
     }
 
+    private Recurrence parseRecurrence(String userInput) throws VeggieException {
+        int everyIndex = userInput.indexOf("/every");
+        if (everyIndex < 0) {
+            return null;
+        }
+        return Recurrence.parse(userInput.substring(everyIndex + "/every".length()));
+    }
+
+    private String removeRecurrence(String userInput) {
+        int everyIndex = userInput.indexOf("/every");
+        return everyIndex < 0 ? userInput : userInput.substring(0, everyIndex).trim();
+    }
+
+    private String describeRecurrence(Recurrence recurrence) {
+        return recurrence == null ? "" : " (" + recurrence + ")";
+    }
+
+    private String handleUpcoming(String userInput) {
+        try {
+            String[] words = userInput.trim().split("\\s+");
+            int days = words.length > 1 ? Integer.parseInt(words[1]) : 7;
+            if (days < 1 || days > 366) {
+                throw new VeggieException("Number of days must be between 1 and 366.");
+            }
+
+            LocalDateTime now = LocalDateTime.now(clock);
+            ArrayList<Occurrence> occurrences = taskManager.findOccurrences(now, now.plusDays(days));
+            return formatOccurrences(occurrences,
+                    "\uD83D\uDCC5 Here's what's sprouting in the next " + days + " days:\n",
+                    "Nothing is due in the next " + days + " days.\n");
+        } catch (NumberFormatException e) {
+            return "Error: Number of days must be a valid integer.";
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String handleSchedule(String userInput) {
+        try {
+            String[] words = userInput.trim().split("\\s+");
+            LocalDateTime from;
+            LocalDateTime to;
+            if (words.length == 3) {
+                // Whole days: from the start of the first day to the end of the last day
+                from = LocalDate.parse(words[1]).atStartOfDay();
+                to = LocalDate.parse(words[2]).plusDays(1).atStartOfDay();
+            } else if (words.length == 5) {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+                from = LocalDateTime.parse(words[1] + " " + words[2], formatter);
+                to = LocalDateTime.parse(words[3] + " " + words[4], formatter);
+            } else {
+                throw new VeggieException("Correct format: schedule [yyyy-MM-dd] [yyyy-MM-dd] "
+                        + "or schedule [yyyy-MM-dd HH:mm] [yyyy-MM-dd HH:mm]");
+            }
+            if (!from.isBefore(to)) {
+                throw new VeggieException("Start of the range must be before its end.");
+            }
+
+            ArrayList<Occurrence> occurrences = taskManager.findOccurrences(from, to);
+            return formatOccurrences(occurrences,
+                    "\uD83D\uDCC5 Here's your garden calendar for that period:\n",
+                    "Nothing is scheduled in that period.\n");
+        } catch (DateTimeParseException e) {
+            return "Error: Invalid time or time format. Use: yyyy-MM-dd or yyyy-MM-dd HH:mm";
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String handleConflicts() {
+        // Repetitions of recurring events are checked for a year ahead
+        List<EventConflict> conflicts = taskManager.findEventConflicts(LocalDateTime.now(clock).plusYears(1));
+        assert conflicts != null : "findEventConflicts() should not return null";
+        if (conflicts.isEmpty()) {
+            return "No events overlap. Your garden calendar is clash-free!\n";
+        }
+        StringBuilder result = new StringBuilder("\u26A0\uFE0F These events overlap:\n");
+        for (int i = 0; i < conflicts.size(); i++) {
+            result.append(i + 1).append(".").append(conflicts.get(i)).append("\n");
+        }
+        return result.toString();
+    }
+
+    private String formatOccurrences(ArrayList<Occurrence> occurrences, String header, String emptyMessage) {
+        assert occurrences != null : "findOccurrences() should not return null";
+        if (occurrences.isEmpty()) {
+            return emptyMessage;
+        }
+        StringBuilder result = new StringBuilder(header);
+        for (int i = 0; i < occurrences.size(); i++) {
+            result.append(i + 1).append(".").append(occurrences.get(i)).append("\n");
+        }
+        return result.toString();
+    }
+
+    private String handleArchive() {
+        try {
+            int[] taskNumbers = taskManager.getArchivableTaskNumbers(LocalDateTime.now(clock));
+            if (taskNumbers.length == 0) {
+                return "Nothing to archive yet. Only done tasks and past events are archived.";
+            }
+            List<Task> tasks = taskManager.getTasks();
+            ArrayList<Task> archivedTasks = new ArrayList<>(taskNumbers.length);
+            for (int taskNumber : taskNumbers) {
+                archivedTasks.add(tasks.get(taskNumber - 1));
+            }
+
+            // Write the archive first so that a failed write never loses tasks
+            taskStorage.appendToArchive(archivedTasks);
+            taskManager.removeArchivedTasks(taskNumbers);
+            saveTasks();
+            return "\uD83E\uDDFA " + taskNumbers.length + " tasks have been moved to the storeroom.\n"
+                    + listTasks();
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String handleFindArchived(String userInput) {
+        String keyword = getArgument(userInput);
+        ArrayList<Task> archivedTasks = taskStorage.findArchivedTasks(keyword);
+        assert archivedTasks != null : "findArchivedTasks() should not return null";
+
+        if (archivedTasks.isEmpty()) {
+            return "No matching archived tasks found.\n";
+        }
+        StringBuilder result = new StringBuilder("\uD83E\uDDFA Here's what I found in the storeroom:\n");
+        for (int i = 0; i < archivedTasks.size(); i++) {
+            result.append(i + 1).append(".").append(archivedTasks.get(i)).append("\n");
+        }
+        return result.toString();
+    }
+
     private String handleMarkTask(String userInput) {
+        String argument = getArgument(userInput);
+        if (TaskNumberParser.isBulkSelection(argument)) {
+            return handleBulkStatusChange(argument, true);
+        }
         try {
             int taskNumber = Integer.parseInt(userInput.split(" ")[1]);
             taskManager.markTaskAsDone(taskNumber);
-            taskStorage.saveTasks(taskManager.getTasks());
+            saveTasks();
             return "✅ This task is fully grown! It's time to harvest it. Task marked as done. "
                     + "🌾\n" + listTasks();
         } catch (Exception e) {
@@ -244,10 +620,14 @@ public class CommandHandler {
     }
 
     private String handleUnmarkTask(String userInput) {
+        String argument = getArgument(userInput);
+        if (TaskNumberParser.isBulkSelection(argument)) {
+            return handleBulkStatusChange(argument, false);
+        }
         try {
             int taskNumber = Integer.parseInt(userInput.split(" ")[1]);
             taskManager.unmarkTask(taskNumber);
-            taskStorage.saveTasks(taskManager.getTasks());
+            saveTasks();
             return "🌱 Oops! Looks like this task still needs some more time in the soil. "
                     + "Task marked as not done. 🌾\n" + listTasks();
         } catch (Exception e) {
@@ -257,37 +637,37 @@ public class CommandHandler {
 
     private String handleFindTask(String userInput) {
         try {
-            assert userInput != null : "User input should not be null";
-            assert userInput.startsWith("find") : "Command should start with 'find'";
-
-            if (userInput.length() <= 5) {
-                throw new VeggieException("Please provide a keyword to search. Correct format: find [keyword]");
-            }
-            String keyword = userInput.substring(5).trim();
-            assert !keyword.isEmpty() : "Keyword should not be empty after trimming";
-
-            // Delegate the task searching to TaskManager
-            ArrayList<Task> matchingTasks = taskManager.findTasksBySubstring(keyword);
-            assert matchingTasks != null : "findTasksBySubstring() should not return null";
-
             StringBuilder result = new StringBuilder();
-            if (matchingTasks.isEmpty()) {
-                result.append("No matching tasks found.\n");
-            } else {
-                result.append("\uD83D\uDD0D Searching through the garden beds "
-                        + "for your tasks... Here's what I found!\n");
-                for (int i = 0; i < matchingTasks.size(); i++) {
-                    assert matchingTasks.get(i) != null : "Task in the matching list should not be null";
-                    result.append((i + 1) + "." + matchingTasks.get(i) + "\n");
-                }
-            }
+            writeTaskList(FIND_HEADER, "No matching tasks found.\n", findMatchingTasks(userInput), result::append);
             return result.toString();
         } catch (VeggieException e) {
             return "Error: " + e.getMessage();
         }
     }
 
+    private ArrayList<Task> findMatchingTasks(String userInput) throws VeggieException {
+        assert userInput != null : "User input should not be null";
+        assert userInput.startsWith("find") : "Command should start with 'find'";
+
+        if (userInput.length() <= 5) {
+            throw new VeggieException("Please provide a keyword to search. Correct format: find [keyword]");
+        }
+        String keyword = userInput.substring(5).trim();
+        assert !keyword.isEmpty() : "Keyword should not be empty after trimming";
+
+        // Plain keywords keep the substring search; operators and filters go through the search index
+        ArrayList<Task> matchingTasks = SearchQuery.isAdvanced(keyword)
+                ? taskManager.search(SearchQuery.parse(keyword))
+                : taskManager.findTasksBySubstring(keyword);
+        assert matchingTasks != null : "Task search should not return null";
+        return matchingTasks;
+    }
+
     private String handleDeleteTask(String userInput) {
+        String argument = getArgument(userInput);
+        if (TaskNumberParser.isBulkSelection(argument)) {
+            return handleBulkDelete(argument);
+        }
         try {
             if (userInput.split(" ").length < 2 || userInput.split(" ")[1].isEmpty()) {
                 return "Error: Please specify a task number to delete.";
@@ -297,7 +677,7 @@ public class CommandHandler {
             assert taskNumber > 0 : "Task number should be positive";
 
             taskManager.deleteTask(taskNumber);
-            taskStorage.saveTasks(taskManager.getTasks());
+            saveTasks();
             return "🌿 Weeding time! The task has been pulled from the garden. 🧑‍🌾\n"
                     + listTasks();
         } catch (NumberFormatException e) {
@@ -310,4 +690,74 @@ public class CommandHandler {
             return "Error: An unexpected error occurred.";
         }
     }
+
+    private String handleUndo() {
+        try {
+            taskManager.undo();
+            saveTasks();
+            return "\uD83D\uDD19 Back to the last season! The most recent change has been undone.\n"
+                    + listTasks();
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String handleRedo() {
+        try {
+            taskManager.redo();
+            saveTasks();
+            return "\uD83D\uDD1C Replanting! The undone change has been applied again.\n"
+                    + listTasks();
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String getArgument(String userInput) {
+        String[] words = userInput.trim().split("\\s+", 2);
+        return words.length > 1 ? words[1].trim() : "";
+    }
+
+    private int[] selectTasks(String selection) throws VeggieException {
+        if (selection.equalsIgnoreCase("done")) {
+            return taskManager.getDoneTaskNumbers();
+        }
+        return TaskNumberParser.parse(selection, taskManager.getTasks().size());
+    }
+
+    private String handleBulkStatusChange(String selection, boolean isDone) {
+        try {
+            int[] taskNumbers = selectTasks(selection);
+            if (taskNumbers.length == 0) {
+                return "No tasks matched: " + selection;
+            }
+            // One batched update and one save, however many tasks are selected
+            taskManager.markTasks(taskNumbers, isDone);
+            saveTasks();
+            if (isDone) {
+                return "✅ " + taskNumbers.length + " tasks are fully grown! Tasks marked as done. 🌾\n"
+                        + listTasks();
+            }
+            return "🌱 " + taskNumbers.length + " tasks need some more time in the soil. "
+                    + "Tasks marked as not done. 🌾\n" + listTasks();
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
+
+    private String handleBulkDelete(String selection) {
+        try {
+            int[] taskNumbers = selectTasks(selection);
+            if (taskNumbers.length == 0) {
+                return "No tasks matched: " + selection;
+            }
+            // One compaction of the list and one save, however many tasks are deleted
+            taskManager.deleteTasks(taskNumbers);
+            saveTasks();
+            return "🌿 Weeding time! " + taskNumbers.length + " tasks have been pulled from the garden. 🧑‍🌾\n"
+                    + listTasks();
+        } catch (VeggieException e) {
+            return "Error: " + e.getMessage();
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package vegetables.command;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of rendered command responses.
+ * <p>
+ * Each response is stored with the task list version it was rendered from and is only
+ * returned while that version is still current, so any change to the tasks invalidates it.
+ * </p>
+ */
+class ResultCache {
+    private static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * A rendered response and the task list version it belongs to.
+     */
+    private static class Entry {
+        private final long version;
+        private final String response;
+
+        private Entry(long version, String response) {
+            this.version = version;
+            this.response = response;
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    ResultCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    ResultCache(int capacity) {
+        assert capacity > 0 : "Cache capacity should be positive";
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Normalises a command so that inputs differing only in spacing share an entry.
+     *
+     * @param userInput The command input.
+     * @return The cache key.
+     */
+    static String keyOf(String userInput) {
+        return userInput.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Returns the cached response for a key if it was rendered from the given version.
+     *
+     * @param key The normalised command.
+     * @param version The current task list version.
+     * @return The cached response, or null if there is none or it is stale.
+     */
+    synchronized String get(String key, long version) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.version != version) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.response;
+    }
+
+    /**
+     * Stores a response rendered from the given version, evicting the least recently used entry if full.
+     *
+     * @param key The normalised command.
+     * @param version The task list version the response was rendered from.
+     * @param response The rendered response.
+     */
+    synchronized void put(String key, long version, String response) {
+        entries.put(key, new Entry(version, response));
+    }
+}
@@ -0,0 +1,66 @@
+package vegetables.command;
+
+import java.util.BitSet;
+
+import vegetables.exception.VeggieException;
+
+/**
+ * Parses the task numbers given to bulk commands such as {@code mark 3,7,9} or {@code delete 10-500}.
+ * A selection is a comma-separated list of task numbers and inclusive ranges of task numbers.
+ */
+public class TaskNumberParser {
+    /**
+     * Returns whether the argument of a command selects several tasks rather than a single task number.
+     *
+     * @param argument The argument of the command, e.g. "3,7,9", "10-500" or "done".
+     * @return true if the argument is a bulk selection, false otherwise.
+     */
+    public static boolean isBulkSelection(String argument) {
+        return argument.contains(",") || argument.contains("-") || argument.equalsIgnoreCase("done");
+    }
+
+    /**
+     * Parses a selection of task numbers, e.g. "1,4-6,9".
+     *
+     * @param selection The comma-separated list of task numbers and ranges.
+     * @param taskCount The number of tasks in the list; every selected number must be between 1 and this.
+     * @return The selected task numbers (1-based), in ascending order and without duplicates.
+     * @throws VeggieException If the selection is malformed or contains a number out of range.
+     */
+    public static int[] parse(String selection, int taskCount) throws VeggieException {
+        BitSet selected = new BitSet(taskCount + 1);
+        for (String part : selection.split(",")) {
+            String item = part.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            String[] bounds = item.split("-", -1);
+            if (bounds.length > 2) {
+                throw new VeggieException("Invalid task range: " + item);
+            }
+            int first = parseTaskNumber(bounds[0], taskCount);
+            int last = bounds.length == 2 ? parseTaskNumber(bounds[1], taskCount) : first;
+            if (first > last) {
+                throw new VeggieException("Invalid task range: " + item);
+            }
+            selected.set(first, last + 1);
+        }
+        if (selected.isEmpty()) {
+            throw new VeggieException("Please specify at least one task number.");
+        }
+        return selected.stream().toArray();
+    }
+
+    private static int parseTaskNumber(String number, int taskCount) throws VeggieException {
+        int taskNumber;
+        try {
+            taskNumber = Integer.parseInt(number.trim());
+        } catch (NumberFormatException e) {
+            throw new VeggieException("Task number must be a valid integer: " + number.trim());
+        }
+        if (taskNumber < 1 || taskNumber > taskCount) {
+            throw new VeggieException("Task number out of range: " + taskNumber);
+        }
+        return taskNumber;
+    }
+}
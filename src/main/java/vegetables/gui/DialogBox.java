@@ -13,17 +13,27 @@ import javafx.scene.control.Label;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Region;
+import javafx.scene.layout.VBox;
 
 /**
  * Represents a dialog box consisting of an ImageView to represent the speaker's face
- * and a label containing text from the speaker.
+ * and labels containing text from the speaker.
+ * <p>
+ * Text added to a message goes into labels of its own, so a long response shown piece by piece
+ * never copies what is already shown. A line cut off at the end of one piece is kept in a label by
+ * itself, which the next piece completes.
+ * </p>
  */
 public class DialogBox extends HBox {
     @FXML
-    private Label dialog;
+    private VBox dialog;
     @FXML
     private ImageView displayPicture;
 
+    // Whether the text so far ends part-way through a line, which the next text continues
+    private boolean isLineOpen;
+
     private DialogBox(String text, Image img, boolean isUserDialog) {
         try {
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/DialogBox.fxml"));
@@ -34,7 +44,7 @@ public class DialogBox extends HBox {
             e.printStackTrace();
         }
 
-        dialog.setText(text);
+        appendText(text);
         displayPicture.setImage(img);
 
         // Set alignment to the right for user and left for system (Veggie)
@@ -45,6 +55,42 @@ public class DialogBox extends HBox {
         }
     }
 
+    /**
+     * Adds text to the end of the message, e.g. the next part of a long response.
+     *
+     * @param text The text to add.
+     */
+    public void appendText(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        int rest = 0;
+        if (isLineOpen) {
+            int lineEnd = text.indexOf('\n');
+            rest = lineEnd < 0 ? text.length() : lineEnd + 1;
+            Label openLine = (Label) dialog.getChildren().get(dialog.getChildren().size() - 1);
+            openLine.setText(openLine.getText() + text.substring(0, lineEnd < 0 ? rest : lineEnd));
+        }
+        int openLineStart = text.lastIndexOf('\n') + 1;
+        if (rest < openLineStart) {
+            dialog.getChildren().add(createLabel(text.substring(rest, openLineStart - 1)));
+        }
+        if (Math.max(rest, openLineStart) < text.length()) {
+            dialog.getChildren().add(createLabel(text.substring(Math.max(rest, openLineStart))));
+        }
+        isLineOpen = openLineStart < text.length();
+    }
+
+    /**
+     * Creates a label for whole lines, without the line break after the last one, or for the start of a line.
+     */
+    private static Label createLabel(String text) {
+        Label label = new Label(text);
+        label.setWrapText(true);
+        label.setMinHeight(Region.USE_PREF_SIZE);
+        return label;
+    }
+
     /**
      * Flips the dialog box such that the ImageView is on the left and text on the right.
      */
@@ -1,22 +1,51 @@
 package vegetables.gui;
 
 import java.io.IOException;
+import java.time.Clock;
 
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
+import javafx.scene.control.Label;
 import javafx.scene.layout.AnchorPane;
+import javafx.scene.layout.BorderPane;
 import javafx.stage.Stage;
 
+import vegetables.jfr.GuiStartupEvent;
+import vegetables.manager.ReminderScheduler;
+
 /**
  * The main entry point for the JavaFX application.
  * <p>
  * This class initializes and launches the GUI for the Vegetables application.
- * It loads the {@code MainWindow.fxml} file and sets up the primary stage.
+ * It loads the {@code MainWindow.fxml} file and sets up the primary stage, with a table of
+ * the current tasks beside the chat.
+ * </p>
+ * <p>
+ * The window is shown before the tasks are loaded; loading runs in the background and the task
+ * table appears once it is done. Both points are recorded as {@link GuiStartupEvent}s. From then on,
+ * reminders for due deadlines and starting events are shown in the chat.
  * </p>
  */
 public class Main extends Application {
+    private static final double TASK_TABLE_WIDTH = 320.0;
+
     private final VegetablesGui vegetablesGui = new VegetablesGui();
+    private final GuiStartupEvent firstFrameEvent = new GuiStartupEvent();
+    private final GuiStartupEvent tasksReadyEvent = new GuiStartupEvent();
+    private MainWindow mainWindow;
+    // Created on the command thread, and closed once it has stopped
+    private ReminderScheduler reminderScheduler;
+
+    /**
+     * Creates the application. Startup is timed from here.
+     */
+    public Main() {
+        firstFrameEvent.begin();
+        tasksReadyEvent.begin();
+    }
 
     /**
      * Starts the JavaFX application by setting up the primary stage.
@@ -29,13 +58,35 @@ public class Main extends Application {
      */
     @Override
     public void start(Stage stage) {
+        vegetablesGui.startLoading();
         try {
             // Load FXML file
             FXMLLoader fxmlLoader = new FXMLLoader(getClass().getResource("/view/MainWindow.fxml"));
             AnchorPane root = fxmlLoader.load();
 
-            // Set up scene
-            Scene scene = new Scene(root);
+            // Set up scene, with the task table as a side panel
+            BorderPane window = new BorderPane(root);
+            Label loadingLabel = new Label("Loading tasks...");
+            loadingLabel.setPrefWidth(TASK_TABLE_WIDTH);
+            window.setRight(loadingLabel);
+            vegetablesGui.whenReady(() -> {
+                TaskTable taskTable = new TaskTable();
+                taskTable.setPrefWidth(TASK_TABLE_WIDTH);
+                window.setRight(taskTable);
+                MainWindow shownWindow = mainWindow;
+                if (shownWindow != null) {
+                    shownWindow.setTaskTable(taskTable);
+                }
+                vegetablesGui.withTaskManager(taskManager -> {
+                    taskTable.follow(taskManager);
+                    if (shownWindow != null) {
+                        reminderScheduler = new ReminderScheduler(taskManager, Clock.systemDefaultZone(),
+                                reminder -> Platform.runLater(() -> shownWindow.showReminder(reminder)));
+                    }
+                });
+                commitStartupEvent(tasksReadyEvent, "tasks ready");
+            });
+            Scene scene = new Scene(window);
             stage.setScene(scene);
             stage.setTitle("Vegetables - Task Manager Chatbot");
 
@@ -43,15 +94,48 @@ public class Main extends Application {
             MainWindow controller = fxmlLoader.getController();
             if (controller != null) {
                 controller.setVegetablesGui(vegetablesGui);
+                mainWindow = controller;
             } else {
                 System.err.println("Error: MainWindow controller is null. Check FXML file.");
             }
 
-            // Show GUI
+            // Show GUI, and note when its first frame is drawn
             stage.show();
+            new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    stop();
+                    commitStartupEvent(firstFrameEvent, "first frame");
+                }
+            }.start();
         } catch (IOException e) {
             System.err.println("Failed to load MainWindow.fxml: " + e.getMessage());
             e.printStackTrace();
         }
     }
+
+    /**
+     * Saves the tasks and releases the window's resources when the window is closed, whether by saying "bye" or by
+     * closing it.
+     */
+    @Override
+    public void stop() {
+        // Waits for the command thread, so the scheduler is either created by now or never will be
+        vegetablesGui.shutdown();
+        if (reminderScheduler != null) {
+            reminderScheduler.close();
+        }
+        if (mainWindow != null) {
+            mainWindow.close();
+        }
+    }
+
+    private void commitStartupEvent(GuiStartupEvent event, String milestone) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setMilestone(milestone);
+            event.setTaskCount(vegetablesGui.getLoadedTaskCount());
+            event.commit();
+        }
+    }
 }
@@ -1,11 +1,22 @@
 package vegetables.gui;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
 import javafx.application.Platform;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
+import javafx.scene.Node;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.TextField;
 import javafx.scene.image.Image;
 import javafx.scene.layout.VBox;
+import vegetables.search.SearchQuery;
+import vegetables.search.TypeAheadSearch;
+import vegetables.storage.SessionLog;
+import vegetables.task.Task;
 import vegetables.util.FunFactGenerator;
 
 /**
@@ -15,15 +26,41 @@ import vegetables.util.FunFactGenerator;
  * and system responses. It extends {@link ScrollPane} and contains an interactive
  * text field for user input.
  * </p>
+ * <p>
+ * Every message is also written to a session log, and only the most recent messages are kept
+ * on screen. Older ones are read back from the log a page at a time when the user scrolls to the
+ * top, so memory use stays flat however long the session runs. If the log cannot be created or fails,
+ * the user is told and every later message is kept on screen instead.
+ * </p>
+ * <p>
+ * Responses are shown as they are written, so the first tasks of a long list appear while the rest are
+ * still being formatted.
+ * </p>
+ * <p>
+ * While a plain "find" command is being typed, the task table is filtered to the matching tasks
+ * as the keyword changes, searching in the background so typing never waits for a long list.
+ * </p>
  */
 public class MainWindow extends ScrollPane {
+    private static final int MAX_SHOWN_MESSAGES = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final long TYPE_AHEAD_DEBOUNCE_MILLIS = 150;
+
     @FXML private VBox dialogContainer;
     @FXML private TextField userInput;
     @FXML private ScrollPane scrollPane;
 
     private VegetablesGui vegetablesGui;
-    private final Image userImage = new Image(getClass().getResourceAsStream("/images/User.png"));
-    private final Image veggieImage = new Image(getClass().getResourceAsStream("/images/Vegetables.png"));
+    // Decoded in the background; the dialogs show the pictures as soon as they are ready
+    private final Image userImage = new Image(getClass().getResource("/images/User.png").toExternalForm(), true);
+    private final Image veggieImage =
+            new Image(getClass().getResource("/images/Vegetables.png").toExternalForm(), true);
+    private SessionLog sessionLog;
+    // Position in the session log of the first message on screen
+    private int firstShownIndex;
+    private TaskTable taskTable;
+    private final TypeAheadSearch typeAheadSearch =
+            new TypeAheadSearch(TYPE_AHEAD_DEBOUNCE_MILLIS, this::showTypeAheadResults);
 
     /**
      * Sets the instance of {@link VegetablesGui} that handles user input and responses.
@@ -32,14 +69,44 @@ public class MainWindow extends ScrollPane {
      */
     public void setVegetablesGui(VegetablesGui vegetablesGui) {
         this.vegetablesGui = vegetablesGui;
+        vegetablesGui.whenReady(() -> {
+            if (vegetablesGui.getStartupMessage() != null) {
+                showResponse(vegetablesGui.getStartupMessage());
+            }
+        });
+    }
+
+    /**
+     * Sets the task table to filter while a "find" command is being typed.
+     *
+     * @param taskTable The task table shown beside the chat.
+     */
+    public void setTaskTable(TaskTable taskTable) {
+        this.taskTable = taskTable;
     }
 
     /**
      * Initializes the GUI and displays a fun fact when the chatbot starts.
+     * The fun fact is added after the first frame so that it does not hold up showing the window.
      */
     @FXML
     public void initialize() {
-        showFunFact();
+        Platform.runLater(this::showFunFact);
+
+        try {
+            sessionLog = SessionLog.createTemporary();
+        } catch (IOException e) {
+            Platform.runLater(() -> showLogWarning("Could not create the session log (" + e.getMessage()
+                    + "), so every message is kept on screen."));
+        }
+        userInput.textProperty().addListener((obs, oldText, newText) -> updateTypeAhead(newText));
+        scrollPane.vvalueProperty().addListener((obs, oldValue, newValue) -> {
+            if (newValue.doubleValue() <= scrollPane.getVmin()) {
+                showOlderMessages();
+            } else if (newValue.doubleValue() >= scrollPane.getVmax()) {
+                showNewerMessages();
+            }
+        });
 
         // Add a listener to handle resizing dynamically if needed
         scrollPane.widthProperty().addListener((obs, oldWidth, newWidth) -> {
@@ -54,24 +121,228 @@ public class MainWindow extends ScrollPane {
     }
 
     private void showFunFact() {
-        String funFact = "🌱 Fun Fact: " + FunFactGenerator.getRandomFunFact();
-        dialogContainer.getChildren().add(DialogBox.getVeggieDialog(funFact, veggieImage));
+        addMessage(false, "🌱 Fun Fact: " + FunFactGenerator.getRandomFunFact());
     }
 
     @FXML
     private void handleUserInput() {
         String input = userInput.getText();
-        String response = vegetablesGui.getResponse(input);
 
         // Add user dialog (aligned to the right)
-        dialogContainer.getChildren().add(DialogBox.getUserDialog(input, userImage));
+        addMessage(true, input);
+        userInput.clear();
 
+        if (!vegetablesGui.isReady()) {
+            showResponse("Still unpacking your tasks, I'll answer as soon as they're loaded.");
+        }
+        StreamedResponse response = new StreamedResponse();
+        vegetablesGui.submit(input, response::show, () -> {
+            if (vegetablesGui.isShutDown()) {
+                Platform.exit();
+            }
+        });
+    }
+
+    /**
+     * Shows a reminder from the {@code ReminderScheduler} as a message from Veggie.
+     * Must be called on the JavaFX thread.
+     *
+     * @param reminder The reminder to show.
+     */
+    public void showReminder(String reminder) {
+        showResponse("⏰ " + reminder);
+    }
+
+    private void showResponse(String response) {
         // Add Veggie dialog (aligned to the left)
-        dialogContainer.getChildren().add(DialogBox.getVeggieDialog(response, veggieImage));
+        addMessage(false, response);
+        Platform.runLater(() -> scrollPane.setVvalue(1.0));
+    }
 
-        userInput.clear();
+    /**
+     * A response from Veggie that is shown as it arrives, in one dialog that grows with each part.
+     * Each part is added to the dialog and to the session log as it arrives, so the whole text is
+     * never held here.
+     */
+    private class StreamedResponse {
+        private DialogBox dialog;
+        private int logIndex;
+
+        private void show(String part) {
+            if (dialog == null) {
+                // Add Veggie dialog (aligned to the left)
+                dialog = createDialog(false, part);
+                logIndex = addDialog(dialog, false, part);
+                Platform.runLater(() -> scrollPane.setVvalue(1.0));
+                return;
+            }
+            dialog.appendText(part);
+            if (logIndex < 0 || sessionLog == null) {
+                return;
+            }
+            try {
+                sessionLog.extend(logIndex, part);
+            } catch (IOException e) {
+                stopLogging("Could not write to the session log", e);
+            }
+        }
+    }
+
+    private void updateTypeAhead(String text) {
+        if (taskTable == null) {
+            return;
+        }
+        String keyword = getTypeAheadKeyword(text);
+        if (keyword == null) {
+            typeAheadSearch.cancel();
+            taskTable.showAll();
+            return;
+        }
+        vegetablesGui.withTaskManager(taskManager ->
+                typeAheadSearch.update(taskManager.snapshot(), taskManager.getVersion(), keyword));
+    }
+
+    /**
+     * Returns the keyword of a plain "find" command being typed. Queries with operators and filters are
+     * only run when the command is entered.
+     */
+    private static String getTypeAheadKeyword(String text) {
+        if (!text.toLowerCase(Locale.ROOT).startsWith("find ")) {
+            return null;
+        }
+        String keyword = text.substring(5).trim();
+        return keyword.isEmpty() || SearchQuery.isAdvanced(keyword) ? null : keyword;
+    }
 
+    private void showTypeAheadResults(String keyword, List<Task> matches) {
+        Platform.runLater(() -> {
+            // Drop results for a keyword that has been typed over since
+            if (keyword.equals(getTypeAheadKeyword(userInput.getText()))) {
+                taskTable.showOnly(matches);
+            }
+        });
+    }
+
+    private DialogBox createDialog(boolean isUser, String text) {
+        return isUser ? DialogBox.getUserDialog(text, userImage) : DialogBox.getVeggieDialog(text, veggieImage);
+    }
+
+    private void addMessage(boolean isUser, String text) {
+        addDialog(createDialog(isUser, text), isUser, text);
+    }
+
+    /**
+     * Logs a message and shows its dialog below the others.
+     * Returns the position of the message in the session log, or -1 if it was not logged.
+     */
+    private int addDialog(DialogBox dialog, boolean isUser, String text) {
+        ObservableList<Node> dialogs = dialogContainer.getChildren();
+        if (sessionLog == null) {
+            dialogs.add(dialog);
+            return -1;
+        }
+        int index = -1;
+        try {
+            index = sessionLog.append(isUser, text);
+            if (index != firstShownIndex + dialogs.size()) {
+                // Older messages are on screen; go back to the latest ones
+                firstShownIndex = Math.max(0, index + 1 - PAGE_SIZE);
+                dialogs.setAll(readDialogs(firstShownIndex, index));
+            }
+        } catch (IOException e) {
+            stopLogging("Could not write to the session log", e);
+        }
+        dialogs.add(dialog);
+        trimFromTop();
+        return index;
+    }
+
+    private void showOlderMessages() {
+        if (sessionLog == null || firstShownIndex == 0) {
+            return;
+        }
+        int from = Math.max(0, firstShownIndex - PAGE_SIZE);
+        try {
+            List<Node> dialogs = dialogContainer.getChildren();
+            List<DialogBox> olderDialogs = readDialogs(from, firstShownIndex);
+            dialogs.addAll(0, olderDialogs);
+            firstShownIndex = from;
+            while (dialogs.size() > MAX_SHOWN_MESSAGES) {
+                dialogs.remove(dialogs.size() - 1);
+            }
+            // Stay next to the message that was at the top, rather than loading page after page
+            scrollPane.setVvalue((double) olderDialogs.size() / dialogs.size());
+        } catch (IOException e) {
+            stopLogging("Could not read older messages", e);
+        }
+    }
+
+    private void showNewerMessages() {
+        List<Node> dialogs = dialogContainer.getChildren();
+        int next = firstShownIndex + dialogs.size();
+        if (sessionLog == null || next >= sessionLog.size()) {
+            return;
+        }
+        try {
+            List<DialogBox> newerDialogs = readDialogs(next, Math.min(sessionLog.size(), next + PAGE_SIZE));
+            dialogs.addAll(newerDialogs);
+            trimFromTop();
+            scrollPane.setVvalue(1.0 - (double) newerDialogs.size() / dialogs.size());
+        } catch (IOException e) {
+            stopLogging("Could not read newer messages", e);
+        }
+    }
+
+    private void trimFromTop() {
+        List<Node> dialogs = dialogContainer.getChildren();
+        while (dialogs.size() > MAX_SHOWN_MESSAGES) {
+            dialogs.remove(0);
+            firstShownIndex++;
+        }
+    }
+
+    /**
+     * Gives up on a session log that failed, keeping every later message on screen, and tells the user.
+     */
+    private void stopLogging(String problem, IOException e) {
+        try {
+            sessionLog.close();
+        } catch (IOException closeError) {
+            // The log is abandoned either way; its temporary file is deleted on exit
+        }
+        sessionLog = null;
+        showLogWarning(problem + " (" + e.getMessage() + "). From now on every message is kept on screen, "
+                + "and messages no longer shown cannot be scrolled back to.");
+    }
+
+    /**
+     * Shows a problem with the session log as a message from Veggie, without logging it.
+     */
+    private void showLogWarning(String warning) {
+        dialogContainer.getChildren().add(createDialog(false, "⚠ " + warning));
         Platform.runLater(() -> scrollPane.setVvalue(1.0));
     }
 
+    private List<DialogBox> readDialogs(int from, int to) throws IOException {
+        List<DialogBox> dialogs = new ArrayList<>(to - from);
+        for (SessionLog.Entry entry : sessionLog.read(from, to)) {
+            dialogs.add(createDialog(entry.isUser(), entry.getText()));
+        }
+        return dialogs;
+    }
+
+    /**
+     * Stops the type-ahead search and closes and deletes the session log. Called when the application stops.
+     */
+    public void close() {
+        typeAheadSearch.close();
+        if (sessionLog == null) {
+            return;
+        }
+        try {
+            sessionLog.close();
+        } catch (IOException e) {
+            System.err.println("Could not delete the session log: " + e.getMessage());
+        }
+    }
 }
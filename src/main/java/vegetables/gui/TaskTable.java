@@ -0,0 +1,156 @@
+package vegetables.gui;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+
+import vegetables.manager.TaskChangeEvent;
+import vegetables.manager.TaskManager;
+import vegetables.task.Task;
+
+/**
+ * A side panel listing every task, kept in step with a {@link TaskManager}.
+ * <p>
+ * The rows mirror the task list and are updated one change at a time from the events the
+ * task manager publishes, so adding, marking or deleting a task touches only its own row.
+ * Only the visible rows are ever rendered, which keeps scrolling smooth for very long lists.
+ * </p>
+ * <p>
+ * The table can be narrowed down to some of the tasks, e.g. the results of a search, while still
+ * following changes and numbering each task by its place in the whole list.
+ * </p>
+ */
+public class TaskTable extends TableView<Task> {
+    private static final double ROW_HEIGHT = 24.0;
+
+    private final ObservableList<Task> rows = FXCollections.observableArrayList();
+    private final FilteredList<Task> shownRows = new FilteredList<>(rows);
+    private final ConcurrentLinkedQueue<TaskChangeEvent> pendingEvents = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+
+    /**
+     * Creates an empty table. Its rows are filled in by {@link #follow(TaskManager)}.
+     */
+    public TaskTable() {
+        setPlaceholder(new Label("No tasks yet."));
+        setFixedCellSize(ROW_HEIGHT);
+        setColumnResizePolicy(CONSTRAINED_RESIZE_POLICY);
+        getColumns().add(createNumberColumn());
+        getColumns().add(createTaskColumn());
+        setItems(shownRows);
+    }
+
+    /**
+     * Shows the tasks of the given task manager and starts following its changes. Must be called on the
+     * thread that changes the task list, so that no change can happen between copying the list and subscribing.
+     *
+     * @param taskManager The task manager whose tasks are shown.
+     */
+    public void follow(TaskManager taskManager) {
+        List<Task> snapshot = taskManager.snapshot();
+        // Changes are applied by later calls to the JavaFX thread, so always after the snapshot is shown
+        Platform.runLater(() -> rows.setAll(snapshot));
+        taskManager.getChanges().subscribe(new ChangeSubscriber());
+    }
+
+    /**
+     * Shows only the given tasks, in the order of the task list.
+     * Tasks are matched by id, so a task stays shown when it is marked or unmarked afterwards.
+     *
+     * @param tasks The tasks to show.
+     */
+    public void showOnly(Collection<Task> tasks) {
+        HashSet<Long> shownIds = new HashSet<>();
+        for (Task task : tasks) {
+            shownIds.add(task.getId());
+        }
+        shownRows.setPredicate(task -> shownIds.contains(task.getId()));
+    }
+
+    /**
+     * Shows every task again.
+     */
+    public void showAll() {
+        shownRows.setPredicate(null);
+    }
+
+    private TableColumn<Task, String> createNumberColumn() {
+        TableColumn<Task, String> column = new TableColumn<>("#");
+        column.setSortable(false);
+        column.setMaxWidth(60.0);
+        // Numbers follow the position of the row, so deleting a task does not update the rows below it
+        column.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(String item, boolean isEmpty) {
+                super.updateItem(item, isEmpty);
+                setText(isEmpty ? null : String.valueOf(shownRows.getSourceIndex(getIndex()) + 1));
+            }
+        });
+        return column;
+    }
+
+    private static TableColumn<Task, String> createTaskColumn() {
+        TableColumn<Task, String> column = new TableColumn<>("Task");
+        // Rows are kept in the order of the task list, which task numbers depend on
+        column.setSortable(false);
+        column.setCellValueFactory(data -> new ReadOnlyStringWrapper(data.getValue().toString()));
+        return column;
+    }
+
+    private void applyPendingEvents() {
+        isDrainScheduled.set(false);
+        TaskChangeEvent event;
+        while ((event = pendingEvents.poll()) != null) {
+            switch (event.getType()) {
+            case ADDED -> rows.add(event.getIndex(), event.getTask());
+            case UPDATED -> rows.set(event.getIndex(), event.getTask());
+            case REMOVED -> rows.remove(event.getIndex());
+            case RESET -> rows.setAll(event.getTasks());
+            default -> throw new AssertionError("Unknown change: " + event.getType());
+            }
+        }
+    }
+
+    /**
+     * Queues published changes and applies them in batches on the JavaFX thread.
+     */
+    private class ChangeSubscriber implements Flow.Subscriber<TaskChangeEvent> {
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            // Changes are only queued here, so there is no reason to hold back requests and stall the
+            // command that made the change
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(TaskChangeEvent event) {
+            pendingEvents.add(event);
+            if (isDrainScheduled.compareAndSet(false, true)) {
+                Platform.runLater(TaskTable.this::applyPendingEvents);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            System.err.println("Task table stopped following changes: " + throwable.getMessage());
+        }
+
+        @Override
+        public void onComplete() {
+            // The task manager is shutting down; the table keeps showing the last list
+        }
+    }
+}
@@ -1,6 +1,15 @@
 package vegetables.gui;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import javafx.application.Platform;
 
 import vegetables.command.CommandHandler;
 import vegetables.manager.TaskManager;
@@ -14,35 +23,264 @@ import vegetables.task.Task;
  * {@link TaskManager}, and {@link CommandHandler}. It processes user input and returns
  * appropriate responses.
  * </p>
+ * <p>
+ * The components are set up, and every command is then run, on a background command thread, so the
+ * window is shown straight away and stays responsive while a long response is written. The task manager
+ * is only used on that thread. Commands entered before the tasks are loaded wait behind the loading and
+ * are answered, in order, once it is done. Apart from {@link #withTaskManager}, every method is called
+ * on the JavaFX thread, and every callback runs on it.
+ * </p>
+ * <p>
+ * If the tasks cannot be loaded, the task file is left as it is and the tasks are kept in a recovery copy
+ * instead, see {@link TaskStorage#createRecoveryStorage()}, so that the window and the commands already
+ * entered still work. What happened, and where the tasks are, is available from {@link #getStartupMessage()}.
+ * </p>
  */
 public class VegetablesGui {
-    private final CommandHandler commandHandler;
+    private final ExecutorService commandExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-runner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only used on the command thread
+    private TaskManager taskManager;
+    private CommandHandler commandHandler;
+
+    // Only used on the JavaFX thread
+    private boolean isReady;
+    private int loadedTaskCount;
+    private String startupMessage;
+    private final ArrayList<Runnable> readyListeners = new ArrayList<>();
 
     /**
-     * Constructs a {@code VegetablesGUI} instance and initializes the necessary components.
+     * Starts loading tasks from storage on the command thread.
      * <p>
      * This includes loading tasks from storage, managing them through {@link TaskManager},
-     * and setting up a {@link CommandHandler} to process user commands.
+     * building its indexes, setting up a {@link CommandHandler} to process user commands, and
+     * watching the task file for changes made by other programs.
      * </p>
      */
-    public VegetablesGui() {
+    public void startLoading() {
+        commandExecutor.execute(this::load);
+    }
+
+    private void load() {
         TaskStorage taskStorage = new TaskStorage();
-        ArrayList<Task> tasks = taskStorage.loadTasks();
-        TaskManager taskManager = new TaskManager(tasks);
-        this.commandHandler = new CommandHandler(taskManager, taskStorage);
+        TaskStorage recoveryStorage = taskStorage.createRecoveryStorage();
+        String message = null;
+        boolean isRecovering = false;
+        try {
+            taskManager = new TaskManager(taskStorage.loadTasks());
+            taskManager.prepareIndexes();
+            if (recoveryStorage.hasSavedTasks()) {
+                message = "Note: the tasks you changed while your task file could not be loaded are still in "
+                        + recoveryStorage.getFilePath() + ". Copy over any you need, then delete that file.";
+            }
+        } catch (RuntimeException e) {
+            // The task file may still hold the tasks, so changes made now are saved elsewhere rather than over it
+            isRecovering = true;
+            message = "Error: Could not load your tasks from " + taskStorage.getFilePath() + " ("
+                    + e.getMessage() + "). That file is left as it is, and until it loads again your tasks are "
+                    + "saved to " + recoveryStorage.getFilePath() + " instead.";
+            ArrayList<Task> recoveredTasks = new ArrayList<>();
+            try {
+                recoveredTasks = recoveryStorage.loadTasks();
+            } catch (RuntimeException recoveryError) {
+                message += " That file could not be loaded either (" + recoveryError.getMessage()
+                        + "), so it starts again from an empty list.";
+            }
+            taskStorage = recoveryStorage;
+            taskManager = new TaskManager(recoveredTasks);
+        }
+        commandHandler = new CommandHandler(taskManager, taskStorage);
+
+        // Edits made to the task file by other programs are applied on the command thread, like commands
+        if (!isRecovering) {
+            TaskStorage watchedStorage = taskStorage;
+            try {
+                watchedStorage.watch(reloaded -> commandExecutor.execute(() -> {
+                    taskManager.reconcile(reloaded);
+                    watchedStorage.markApplied(reloaded);
+                }));
+            } catch (IOException e) {
+                String watchError = "Could not watch the task file for changes: " + e.getMessage();
+                message = message == null ? watchError : message + "\n" + watchError;
+            }
+        }
+        int taskCount = taskManager.getTasks().size();
+        String reportedMessage = message;
+        Platform.runLater(() -> onLoaded(taskCount, reportedMessage));
+    }
+
+    private void onLoaded(int taskCount, String message) {
+        isReady = true;
+        loadedTaskCount = taskCount;
+        startupMessage = message;
+        readyListeners.forEach(Runnable::run);
+        readyListeners.clear();
     }
 
     /**
-     * Processes user input and returns the corresponding response.
+     * Returns whether the tasks have been loaded and commands are answered straight away.
+     *
+     * @return true once loading has finished.
+     */
+    public boolean isReady() {
+        return isReady;
+    }
+
+    /**
+     * Returns the number of tasks loaded from storage.
+     *
+     * @return The number of tasks loaded, or 0 while they are still loading.
+     */
+    public int getLoadedTaskCount() {
+        return loadedTaskCount;
+    }
+
+    /**
+     * Returns why the tasks could not be loaded and where they are saved instead, or a reminder that tasks
+     * are left in the recovery copy from an earlier time they could not be loaded.
+     *
+     * @return The message to show the user, or null if there is none or the tasks are still loading.
+     */
+    public String getStartupMessage() {
+        return startupMessage;
+    }
+
+    /**
+     * Runs the given action once the tasks have been loaded, or straight away if they already are.
+     *
+     * @param action The action to run on the JavaFX thread.
+     */
+    public void whenReady(Runnable action) {
+        if (isReady()) {
+            action.run();
+        } else {
+            readyListeners.add(action);
+        }
+    }
+
+    /**
+     * Runs the given action with the task manager on the command thread, after the tasks are loaded and
+     * the commands already submitted have run. Anything that reads or follows the task list starts here,
+     * so that no command can change the list while it does.
+     *
+     * @param action The action to run on the command thread.
+     */
+    public void withTaskManager(Consumer<TaskManager> action) {
+        commandExecutor.execute(() -> action.accept(taskManager));
+    }
+
+    /**
+     * Returns whether the user has asked to exit and the application has shut down.
+     * Only up to date in the callbacks of {@link #submit} and after them.
+     *
+     * @return true once the application should close.
+     */
+    public boolean isShutDown() {
+        return isReady() && commandHandler.isShutDown();
+    }
+
+    /**
+     * Waits for the commands already submitted, then saves the tasks and stops background work.
+     * Called when the window is closed without saying "bye".
+     */
+    public void shutdown() {
+        try {
+            commandExecutor.submit(() -> {
+                if (commandHandler != null) {
+                    commandHandler.shutdown();
+                }
+            }).get();
+        } catch (ExecutionException e) {
+            System.err.println("Could not save the tasks on closing: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        commandExecutor.shutdown();
+    }
+
+    /**
+     * Processes user input on the command thread and hands the response to the given callbacks as it is written.
      * <p>
      * Delegates command execution to the {@link CommandHandler}, which interprets the input
-     * and performs the necessary actions.
+     * and performs the necessary actions. Until the tasks are loaded, the input waits behind the loading.
+     * The pieces streamed by {@link CommandHandler#streamCommand} are passed on as they are produced,
+     * joining those that arrive between two frames, so that the start of a long result is shown while
+     * the rest is still being formatted.
      * </p>
      *
      * @param input The user's input command.
-     * @return The response message generated by executing the command.
+     * @param onText Receives the text of the response, in order, in one or more parts.
+     * @param onDone Runs once the whole response has been given.
+     */
+    public void submit(String input, Consumer<String> onText, Runnable onDone) {
+        ResponseStream response = new ResponseStream(onText, onDone);
+        commandExecutor.execute(() -> {
+            try {
+                commandHandler.streamCommand(input, response::add);
+            } finally {
+                response.finish();
+            }
+        });
+    }
+
+    /**
+     * Carries the pieces of one response from the command thread to the JavaFX thread.
+     * <p>
+     * Pieces are queued as they are written, and at most one hand-over to the JavaFX thread is waiting at a
+     * time, which takes all the pieces queued by then. A response written faster than it is shown is thus
+     * passed on in a few large parts rather than one {@link Platform#runLater} call per piece.
+     * </p>
      */
-    public String getResponse(String input) {
-        return commandHandler.executeCommand(input);
+    private static class ResponseStream {
+        private final Consumer<String> onText;
+        private final Runnable onDone;
+        private final ConcurrentLinkedQueue<String> pieces = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean isDrainScheduled = new AtomicBoolean();
+        private volatile boolean isFinished;
+        // Only used on the JavaFX thread
+        private boolean isDone;
+
+        private ResponseStream(Consumer<String> onText, Runnable onDone) {
+            this.onText = onText;
+            this.onDone = onDone;
+        }
+
+        private void add(String piece) {
+            pieces.add(piece);
+            scheduleDrain();
+        }
+
+        private void finish() {
+            isFinished = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (isDrainScheduled.compareAndSet(false, true)) {
+                Platform.runLater(this::drain);
+            }
+        }
+
+        private void drain() {
+            isDrainScheduled.set(false);
+            // Read first: once finished, every piece is already queued and is taken below
+            boolean isComplete = isFinished;
+            StringBuilder text = new StringBuilder();
+            String piece;
+            while ((piece = pieces.poll()) != null) {
+                text.append(piece);
+            }
+            if (text.length() > 0) {
+                onText.accept(text.toString());
+            }
+            if (isComplete && !isDone) {
+                isDone = true;
+                onDone.run();
+            }
+        }
     }
 }
@@ -0,0 +1,30 @@
+package vegetables.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when {@code TaskManager} checks a new event for clashes
+ * with the events already in the list.
+ */
+@Name("vegetables.EventClashCheck")
+@Label("Event Clash Check")
+@Category({"Vegetables", "Manager"})
+@Description("Overlap check of a new event against existing events")
+public class EventClashCheckEvent extends jdk.jfr.Event {
+    @Label("Candidates Scanned")
+    private int candidatesScanned;
+
+    @Label("Clashes")
+    private int clashes;
+
+    public void setCandidatesScanned(int candidatesScanned) {
+        this.candidatesScanned = candidatesScanned;
+    }
+
+    public void setClashes(int clashes) {
+        this.clashes = clashes;
+    }
+}
@@ -0,0 +1,31 @@
+package vegetables.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when the GUI reaches a point of its startup.
+ * The event duration runs from the launch of the application to that point, so recordings
+ * taken before and after a change to startup can be compared directly.
+ */
+@Name("vegetables.GuiStartup")
+@Label("GUI Startup")
+@Category({"Vegetables", "GUI"})
+@Description("Time from launch to a point of the GUI startup")
+public class GuiStartupEvent extends jdk.jfr.Event {
+    @Label("Milestone")
+    private String milestone;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    public void setMilestone(String milestone) {
+        this.milestone = milestone;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+}
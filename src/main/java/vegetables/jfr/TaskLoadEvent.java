@@ -0,0 +1,39 @@
+package vegetables.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when {@code TaskStorage} loads the task file.
+ * The event duration covers reading and parsing every line of the file.
+ */
+@Name("vegetables.TaskLoad")
+@Label("Task Load")
+@Category({"Vegetables", "Storage"})
+@Description("Loading of the task list from disk")
+public class TaskLoadEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+}
@@ -0,0 +1,47 @@
+package vegetables.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted when {@code TaskStorage} saves the task file.
+ * The event duration covers formatting and writing every task to the file.
+ * Saves that fail are recorded as well, with {@code successful} set to false.
+ */
+@Name("vegetables.TaskSave")
+@Label("Task Save")
+@Category({"Vegetables", "Storage"})
+@Description("Saving of the task list to disk")
+public class TaskSaveEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+
+    @Label("Task Count")
+    private int taskCount;
+
+    @Label("File Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Successful")
+    private boolean successful;
+
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    public void setTaskCount(int taskCount) {
+        this.taskCount = taskCount;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public void setSuccessful(boolean successful) {
+        this.successful = successful;
+    }
+}
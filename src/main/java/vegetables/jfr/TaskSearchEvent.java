@@ -0,0 +1,36 @@
+package vegetables.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event emitted for every keyword search run by {@code TaskManager}.
+ */
+@Name("vegetables.TaskSearch")
+@Label("Task Search")
+@Category({"Vegetables", "Manager"})
+@Description("Substring search over task descriptions")
+public class TaskSearchEvent extends jdk.jfr.Event {
+    @Label("Keyword Length")
+    private int keywordLength;
+
+    @Label("Candidates Scanned")
+    private int candidatesScanned;
+
+    @Label("Hits")
+    private int hits;
+
+    public void setKeywordLength(int keywordLength) {
+        this.keywordLength = keywordLength;
+    }
+
+    public void setCandidatesScanned(int candidatesScanned) {
+        this.candidatesScanned = candidatesScanned;
+    }
+
+    public void setHits(int hits) {
+        this.hits = hits;
+    }
+}
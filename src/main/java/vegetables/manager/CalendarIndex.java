@@ -0,0 +1,230 @@
+package vegetables.manager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import vegetables.task.Deadline;
+import vegetables.task.Event;
+import vegetables.task.Occurrence;
+import vegetables.task.RecurringDeadline;
+import vegetables.task.RecurringEvent;
+import vegetables.task.Task;
+
+/**
+ * Indexes Deadline and Event tasks by calendar day so that range queries only look at the days
+ * in the range instead of scanning every task.
+ * <p>
+ * One-off tasks are kept in per-day buckets, stored in an open-addressing hash table keyed by the
+ * epoch day as a primitive {@code long}. A Deadline is bucketed on the day of its deadline and an
+ * Event on the day it starts; the longest bucketed event determines how many days before the
+ * range also have to be checked. Events longer than a week are kept in a list of their own instead,
+ * so that one long event does not widen every query. A range spanning more days than there are
+ * occupied buckets is answered by walking the buckets rather than the days. Recurring tasks cannot
+ * be bucketed since their occurrences are never materialized, so they are kept in a separate list
+ * and expanded for each query.
+ * </p>
+ */
+class CalendarIndex {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long MAX_BUCKETED_SPAN_DAYS = 7;
+
+    private long[] days = newKeyTable(INITIAL_CAPACITY);
+    private Task[][] buckets = new Task[INITIAL_CAPACITY][];
+    private int[] bucketSizes = new int[INITIAL_CAPACITY];
+    private int dayCount;
+    private long maxEventSpanDays;
+
+    private final ArrayList<Task> longEvents = new ArrayList<>();
+    private final ArrayList<Task> recurringTasks = new ArrayList<>();
+
+    /**
+     * Constructs an index of the Deadline and Event tasks in the given list.
+     *
+     * @param tasks The tasks to index.
+     */
+    CalendarIndex(List<Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    private static long[] newKeyTable(int capacity) {
+        long[] keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        return keys;
+    }
+
+    /**
+     * Adds a task to the index. Tasks without a date are ignored.
+     *
+     * @param task The task to add.
+     */
+    void add(Task task) {
+        if (task instanceof RecurringDeadline || task instanceof RecurringEvent) {
+            recurringTasks.add(task);
+        } else if (task instanceof Deadline) {
+            addToBucket(((Deadline) task).getByDateTime().toLocalDate().toEpochDay(), task);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            long startDay = event.getFromDateTime().toLocalDate().toEpochDay();
+            long endDay = event.getToDateTime().toLocalDate().toEpochDay();
+            if (endDay - startDay > MAX_BUCKETED_SPAN_DAYS) {
+                longEvents.add(task);
+                return;
+            }
+            maxEventSpanDays = Math.max(maxEventSpanDays, endDay - startDay);
+            addToBucket(startDay, task);
+        }
+    }
+
+    /**
+     * Removes a task from the index. Tasks that are not in the index are ignored.
+     *
+     * @param task The task to remove; compared by identity.
+     */
+    void remove(Task task) {
+        if (task instanceof RecurringDeadline || task instanceof RecurringEvent) {
+            recurringTasks.removeIf(recurringTask -> recurringTask == task);
+        } else if (task instanceof Deadline) {
+            removeFromBucket(((Deadline) task).getByDateTime().toLocalDate().toEpochDay(), task);
+        } else if (task instanceof Event) {
+            if (!longEvents.removeIf(longEvent -> longEvent == task)) {
+                removeFromBucket(((Event) task).getFromDateTime().toLocalDate().toEpochDay(), task);
+            }
+        }
+    }
+
+    /**
+     * Returns every occurrence of an indexed task that falls within {@code [from, to)}, in time order.
+     * A Deadline falls within the range if its deadline does; an Event if it overlaps the range.
+     *
+     * @param from The start of the range.
+     * @param to The end of the range.
+     * @return The occurrences within the range, sorted by start time.
+     */
+    ArrayList<Occurrence> findOccurrences(LocalDateTime from, LocalDateTime to) {
+        ArrayList<Occurrence> occurrences = new ArrayList<>();
+        long firstDay = from.toLocalDate().toEpochDay() - maxEventSpanDays;
+        long lastDay = to.toLocalDate().toEpochDay();
+        if (lastDay - firstDay < dayCount) {
+            for (long day = firstDay; day <= lastDay; day++) {
+                int slot = findSlot(day);
+                if (days[slot] != EMPTY) {
+                    addBucketOccurrences(slot, from, to, occurrences);
+                }
+            }
+        } else {
+            // A wide range has more days than there are occupied buckets
+            for (int slot = 0; slot < days.length; slot++) {
+                if (days[slot] != EMPTY && days[slot] >= firstDay && days[slot] <= lastDay) {
+                    addBucketOccurrences(slot, from, to, occurrences);
+                }
+            }
+        }
+        for (Task task : longEvents) {
+            addOccurrenceIfInRange(task, from, to, occurrences);
+        }
+        for (Task task : recurringTasks) {
+            if (task instanceof RecurringDeadline) {
+                ((RecurringDeadline) task).occurrencesBetween(from, to)
+                        .forEach(by -> occurrences.add(new Occurrence(task, by, by)));
+            } else {
+                RecurringEvent recurringEvent = (RecurringEvent) task;
+                recurringEvent.occurrencesBetween(from, to).forEach(start -> occurrences.add(
+                        new Occurrence(task, start, start.plus(recurringEvent.getLength()))));
+            }
+        }
+        Collections.sort(occurrences);
+        return occurrences;
+    }
+
+    private void addBucketOccurrences(int slot, LocalDateTime from, LocalDateTime to,
+                                      ArrayList<Occurrence> occurrences) {
+        Task[] bucket = buckets[slot];
+        for (int i = 0; i < bucketSizes[slot]; i++) {
+            addOccurrenceIfInRange(bucket[i], from, to, occurrences);
+        }
+    }
+
+    private static void addOccurrenceIfInRange(Task task, LocalDateTime from, LocalDateTime to,
+                                               ArrayList<Occurrence> occurrences) {
+        if (task instanceof Deadline) {
+            LocalDateTime by = ((Deadline) task).getByDateTime();
+            if (!by.isBefore(from) && by.isBefore(to)) {
+                occurrences.add(new Occurrence(task, by, by));
+            }
+        } else {
+            Event event = (Event) task;
+            if (from.isBefore(event.getToDateTime()) && to.isAfter(event.getFromDateTime())) {
+                occurrences.add(new Occurrence(task, event.getFromDateTime(), event.getToDateTime()));
+            }
+        }
+    }
+
+    private void addToBucket(long day, Task task) {
+        if ((dayCount + 1) * 2 > days.length) {
+            resize();
+        }
+        int slot = findSlot(day);
+        if (days[slot] == EMPTY) {
+            days[slot] = day;
+            buckets[slot] = new Task[2];
+            dayCount++;
+        } else if (bucketSizes[slot] == buckets[slot].length) {
+            buckets[slot] = Arrays.copyOf(buckets[slot], bucketSizes[slot] * 2);
+        }
+        buckets[slot][bucketSizes[slot]++] = task;
+    }
+
+    private void removeFromBucket(long day, Task task) {
+        int slot = findSlot(day);
+        if (days[slot] == EMPTY) {
+            return;
+        }
+        Task[] bucket = buckets[slot];
+        int size = bucketSizes[slot];
+        for (int i = 0; i < size; i++) {
+            if (bucket[i] == task) {
+                // Order within a day does not matter, so fill the gap with the last task
+                bucket[i] = bucket[size - 1];
+                bucket[size - 1] = null;
+                bucketSizes[slot]--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the slot holding the given day, or the empty slot where it would be inserted.
+     */
+    private int findSlot(long day) {
+        int mask = days.length - 1;
+        int slot = Long.hashCode(day * 0x9E3779B97F4A7C15L) & mask;
+        while (days[slot] != EMPTY && days[slot] != day) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldDays = days;
+        Task[][] oldBuckets = buckets;
+        int[] oldSizes = bucketSizes;
+
+        days = newKeyTable(oldDays.length * 2);
+        buckets = new Task[oldDays.length * 2][];
+        bucketSizes = new int[oldDays.length * 2];
+        for (int i = 0; i < oldDays.length; i++) {
+            if (oldDays[i] != EMPTY) {
+                int slot = findSlot(oldDays[i]);
+                days[slot] = oldDays[i];
+                buckets[slot] = oldBuckets[i];
+                bucketSizes[slot] = oldSizes[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package vegetables.manager;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import vegetables.task.Task;
+
+/**
+ * A task list stored as a sequence of small chunks, so that copies of it share the chunks they have in common.
+ * <p>
+ * {@link #snapshot()} returns a read-only copy in O(1) by sharing the list of chunks with it. The first change
+ * made afterwards copies that list of chunks, one reference per chunk, and each change copies only the chunk it
+ * touches the first time it touches it. A snapshot followed by one change therefore copies a small fraction of
+ * the references that copying the whole list would, however many snapshots are still held.
+ * </p>
+ * <p>
+ * Chunks hold up to {@value #MAX_CHUNK_SIZE} tasks. A full chunk is split in two when a task is inserted into it,
+ * except at the end of the list, where a new chunk is started, and an empty one is dropped. Finding the chunk
+ * of a position is a binary search over the chunk ends.
+ * </p>
+ */
+final class ChunkedTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int MAX_CHUNK_SIZE = 64;
+
+    private Task[][] chunks;
+    // The position after the last task of each chunk
+    private int[] ends;
+    private int chunkCount;
+    // Which chunks only this list refers to, and can therefore be changed in place
+    private boolean[] isOwned;
+    // Whether the arrays above are shared with a snapshot, and must be copied before any change
+    private boolean isShared;
+    private final boolean isReadOnly;
+
+    /**
+     * Constructs a list holding the given tasks, in order.
+     *
+     * @param tasks The tasks to start with.
+     */
+    ChunkedTaskList(Collection<? extends Task> tasks) {
+        this.isReadOnly = false;
+        clearChunks();
+        addAll(tasks);
+    }
+
+    private ChunkedTaskList(ChunkedTaskList source) {
+        this.chunks = source.chunks;
+        this.ends = source.ends;
+        this.chunkCount = source.chunkCount;
+        this.isReadOnly = true;
+    }
+
+    /**
+     * Returns a read-only copy of the list as it is now, which later changes to this list do not affect.
+     *
+     * @return The snapshot.
+     */
+    List<Task> snapshot() {
+        isShared = true;
+        return new ChunkedTaskList(this);
+    }
+
+    @Override
+    public int size() {
+        return chunkCount == 0 ? 0 : ends[chunkCount - 1];
+    }
+
+    @Override
+    public Task get(int index) {
+        checkIndex(index, size(), size());
+        int chunk = chunkOf(index);
+        return chunks[chunk][index - start(chunk)];
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        checkIndex(index, size(), size());
+        int chunk = chunkOf(index);
+        Task[] tasks = writableChunk(chunk);
+        int offset = index - start(chunk);
+        Task oldTask = tasks[offset];
+        tasks[offset] = task;
+        return oldTask;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        int size = size();
+        checkIndex(index, size + 1, size);
+        // A position between two chunks goes at the end of the earlier one
+        int chunk = index == size ? chunkCount - 1 : chunkOf(index);
+        if (chunk < 0 || index == size && size - start(chunk) == MAX_CHUNK_SIZE) {
+            // Appending starts a new chunk rather than splitting the last, so appended tasks fill whole chunks
+            prepareChanges();
+            chunk++;
+            insertChunk(chunk, new Task[MAX_CHUNK_SIZE], size);
+        } else if (ends[chunk] - start(chunk) == MAX_CHUNK_SIZE) {
+            splitChunk(chunk);
+            if (index > ends[chunk]) {
+                chunk++;
+            }
+        }
+        Task[] tasks = writableChunk(chunk);
+        int offset = index - start(chunk);
+        int chunkSize = ends[chunk] - start(chunk);
+        System.arraycopy(tasks, offset, tasks, offset + 1, chunkSize - offset);
+        tasks[offset] = task;
+        shiftEnds(chunk, 1);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        checkIndex(index, size(), size());
+        int chunk = chunkOf(index);
+        Task[] tasks = writableChunk(chunk);
+        int offset = index - start(chunk);
+        int chunkSize = ends[chunk] - start(chunk);
+        Task oldTask = tasks[offset];
+        System.arraycopy(tasks, offset + 1, tasks, offset, chunkSize - offset - 1);
+        tasks[chunkSize - 1] = null;
+        shiftEnds(chunk, -1);
+        if (chunkSize == 1) {
+            removeChunk(chunk);
+        }
+        modCount++;
+        return oldTask;
+    }
+
+    @Override
+    public void clear() {
+        checkWritable();
+        clearChunks();
+        modCount++;
+    }
+
+    private void clearChunks() {
+        chunks = new Task[1][];
+        ends = new int[1];
+        isOwned = new boolean[1];
+        chunkCount = 0;
+        isShared = false;
+    }
+
+    private static void checkIndex(int index, int limit, int size) {
+        if (index < 0 || index >= limit) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private void checkWritable() {
+        if (isReadOnly) {
+            throw new UnsupportedOperationException("Snapshots cannot be changed");
+        }
+    }
+
+    private int start(int chunk) {
+        return chunk == 0 ? 0 : ends[chunk - 1];
+    }
+
+    private int chunkOf(int index) {
+        int low = 0;
+        int high = chunkCount - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ends[mid] <= index) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Copies the arrays describing the chunks if a snapshot shares them. The chunks themselves stay shared.
+     */
+    private void prepareChanges() {
+        checkWritable();
+        if (isShared) {
+            chunks = chunks.clone();
+            ends = ends.clone();
+            isOwned = new boolean[chunks.length];
+            isShared = false;
+        }
+    }
+
+    private Task[] writableChunk(int chunk) {
+        prepareChanges();
+        if (!isOwned[chunk]) {
+            chunks[chunk] = Arrays.copyOf(chunks[chunk], MAX_CHUNK_SIZE);
+            isOwned[chunk] = true;
+        }
+        return chunks[chunk];
+    }
+
+    private void splitChunk(int chunk) {
+        Task[] tasks = writableChunk(chunk);
+        int half = MAX_CHUNK_SIZE / 2;
+        Task[] secondHalf = new Task[MAX_CHUNK_SIZE];
+        System.arraycopy(tasks, half, secondHalf, 0, MAX_CHUNK_SIZE - half);
+        Arrays.fill(tasks, half, MAX_CHUNK_SIZE, null);
+        int end = ends[chunk];
+        ends[chunk] = start(chunk) + half;
+        insertChunk(chunk + 1, secondHalf, end);
+    }
+
+    private void insertChunk(int chunk, Task[] tasks, int end) {
+        if (chunkCount == chunks.length) {
+            int capacity = chunks.length * 2;
+            chunks = Arrays.copyOf(chunks, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            isOwned = Arrays.copyOf(isOwned, capacity);
+        }
+        int moved = chunkCount - chunk;
+        System.arraycopy(chunks, chunk, chunks, chunk + 1, moved);
+        System.arraycopy(ends, chunk, ends, chunk + 1, moved);
+        System.arraycopy(isOwned, chunk, isOwned, chunk + 1, moved);
+        chunks[chunk] = tasks;
+        ends[chunk] = end;
+        isOwned[chunk] = true;
+        chunkCount++;
+    }
+
+    private void removeChunk(int chunk) {
+        int moved = chunkCount - chunk - 1;
+        System.arraycopy(chunks, chunk + 1, chunks, chunk, moved);
+        System.arraycopy(ends, chunk + 1, ends, chunk, moved);
+        System.arraycopy(isOwned, chunk + 1, isOwned, chunk, moved);
+        chunkCount--;
+        chunks[chunkCount] = null;
+    }
+
+    private void shiftEnds(int fromChunk, int delta) {
+        for (int i = fromChunk; i < chunkCount; i++) {
+            ends[i] += delta;
+        }
+    }
+}
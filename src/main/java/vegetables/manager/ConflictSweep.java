@@ -0,0 +1,90 @@
+package vegetables.manager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import vegetables.task.Occurrence;
+import vegetables.task.RecurringEvent;
+import vegetables.task.Task;
+
+/**
+ * Finds every pair of overlapping occurrences with a sweep over their start times.
+ * <p>
+ * The occurrences are sorted by start, then visited in that order while a heap keeps those still
+ * running, ordered by end. Whatever is left in the heap when an occurrence starts overlaps it, so each
+ * heap entry looked at is a conflict, and the sweep takes O(n log n + k) for n occurrences and k
+ * conflicts instead of comparing every pair. Large calendars are sorted with
+ * {@link Arrays#parallelSort}.
+ * </p>
+ */
+final class ConflictSweep {
+    // Below this many occurrences, sorting on one thread is faster than splitting the work
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 14;
+
+    private static final Comparator<Occurrence> BY_START =
+            Comparator.comparing(Occurrence::getStart).thenComparing(Occurrence::getEnd);
+
+    private ConflictSweep() {
+    }
+
+    /**
+     * Finds the pairs of tasks with overlapping occurrences. Occurrences touching end to start do not overlap.
+     * A pair of tasks is reported once, for the first of their occurrences that overlap, and a recurring task
+     * never conflicts with itself.
+     *
+     * @param occurrences The occurrences to check, in any order. The array is sorted in place.
+     * @return The conflicts, ordered by the start of their second occurrence.
+     */
+    static List<EventConflict> findConflicts(Occurrence[] occurrences) {
+        if (occurrences.length >= PARALLEL_SORT_THRESHOLD) {
+            Arrays.parallelSort(occurrences, BY_START);
+        } else {
+            Arrays.sort(occurrences, BY_START);
+        }
+
+        List<EventConflict> conflicts = new ArrayList<>();
+        PriorityQueue<Occurrence> running = new PriorityQueue<>(Comparator.comparing(Occurrence::getEnd));
+        // Pairs already reported, kept only for recurring tasks, which can meet the same task again
+        IdentityHashMap<Task, Set<Task>> reportedPairs = new IdentityHashMap<>();
+        for (Occurrence occurrence : occurrences) {
+            while (!running.isEmpty() && !running.peek().getEnd().isAfter(occurrence.getStart())) {
+                running.poll();
+            }
+            if (!occurrence.getEnd().isAfter(occurrence.getStart())) {
+                continue;
+            }
+            for (Occurrence other : running) {
+                if (other.getTask() != occurrence.getTask() && isFirstReport(reportedPairs, other, occurrence)) {
+                    conflicts.add(new EventConflict(other, occurrence));
+                }
+            }
+            running.add(occurrence);
+        }
+        return conflicts;
+    }
+
+    private static boolean isFirstReport(IdentityHashMap<Task, Set<Task>> reportedPairs,
+                                         Occurrence first, Occurrence second) {
+        Task firstTask = first.getTask();
+        Task secondTask = second.getTask();
+        if (!(firstTask instanceof RecurringEvent) && !(secondTask instanceof RecurringEvent)) {
+            // One-off events have a single occurrence each, so the pair cannot come up again
+            return true;
+        }
+        if (!partnersOf(reportedPairs, firstTask).add(secondTask)) {
+            return false;
+        }
+        partnersOf(reportedPairs, secondTask).add(firstTask);
+        return true;
+    }
+
+    private static Set<Task> partnersOf(IdentityHashMap<Task, Set<Task>> reportedPairs, Task task) {
+        return reportedPairs.computeIfAbsent(task, key -> Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+}
@@ -0,0 +1,38 @@
+package vegetables.manager;
+
+import vegetables.task.Occurrence;
+
+/**
+ * A pair of events that overlap, as found by {@code TaskManager#findEventConflicts}.
+ * <p>
+ * Each side is the first occurrence of its event that overlaps the other, so for a recurring
+ * event it is the earliest repetition that clashes. The first side starts no later than the second.
+ * </p>
+ */
+public final class EventConflict {
+    private final Occurrence first;
+    private final Occurrence second;
+
+    EventConflict(Occurrence first, Occurrence second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    public Occurrence getFirst() {
+        return first;
+    }
+
+    public Occurrence getSecond() {
+        return second;
+    }
+
+    /**
+     * Returns a representation of the conflict, e.g. "Dec 01 2025, 2:00 PM - ...: water plants clashes with ...".
+     *
+     * @return A string representation of the conflict.
+     */
+    @Override
+    public String toString() {
+        return first + " clashes with " + second;
+    }
+}
@@ -0,0 +1,192 @@
+package vegetables.manager;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import vegetables.task.Deadline;
+import vegetables.task.Event;
+import vegetables.task.RecurringDeadline;
+import vegetables.task.RecurringEvent;
+import vegetables.task.Task;
+
+/**
+ * Sends a reminder when a deadline is due or an event starts, on a background thread.
+ * <p>
+ * Each task that is not done has one pending reminder, for its deadline or start time, or for the next
+ * occurrence of a recurring task, which is replaced by the following occurrence once it fires. Reminders
+ * are kept in a {@link TimerWheel} with one slot per minute, so the scheduler wakes once a minute and only
+ * looks at the reminders due in that minute, however many tasks there are. The reminders follow the task
+ * list through {@link TaskManager#getChanges()}; times already past when a task is added are not reminded.
+ * </p>
+ */
+public class ReminderScheduler implements AutoCloseable {
+    private static final long MILLIS_PER_MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+    private final Clock clock;
+    private final Consumer<String> listener;
+    private final ScheduledExecutorService executor;
+    // Set on the thread that delivers changes and cancelled by close(), which may run on another thread
+    private volatile Flow.Subscription subscription;
+
+    // Only used on the scheduler thread
+    private final TimerWheel<Task> wheel;
+    private final HashMap<Long, TimerWheel.Timer<Task>> timersByTaskId = new HashMap<>();
+
+    /**
+     * Creates a scheduler for the tasks in a task manager, and starts checking for due reminders every minute.
+     * Must be called on the thread that changes the task manager.
+     *
+     * @param taskManager The task manager whose tasks are reminded.
+     * @param clock The clock giving the current time.
+     * @param listener Receives each reminder. It runs on the scheduler thread.
+     */
+    public ReminderScheduler(TaskManager taskManager, Clock clock, Consumer<String> listener) {
+        this.clock = clock;
+        this.listener = listener;
+        this.wheel = new TimerWheel<>(toMinute(LocalDateTime.now(clock)));
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Changes made after the snapshot arrive as events, which are applied after it
+        List<Task> snapshot = taskManager.snapshot();
+        executor.execute(() -> snapshot.forEach(this::register));
+        taskManager.getChanges().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                ReminderScheduler.this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(TaskChangeEvent event) {
+                executor.execute(() -> apply(event));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        long untilNextMinute = MILLIS_PER_MINUTE - Math.floorMod(clock.millis(), MILLIS_PER_MINUTE);
+        executor.scheduleAtFixedRate(() -> fireDue(LocalDateTime.now(clock)),
+                untilNextMinute, MILLIS_PER_MINUTE, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Fires every reminder due up to the given time, as the scheduler does at the start of every minute.
+     *
+     * @param time The time to check at.
+     * @return A future that completes once the reminders due have been sent.
+     */
+    Future<?> checkAt(LocalDateTime time) {
+        return executor.submit(() -> fireDue(time));
+    }
+
+    /**
+     * Counts the reminders waiting to fire, once the changes received so far have been applied.
+     *
+     * @return A future giving the number of pending reminders.
+     */
+    Future<Integer> countPending() {
+        return executor.submit(wheel::size);
+    }
+
+    /**
+     * Stops sending reminders and following changes to the task list.
+     */
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        executor.shutdownNow();
+    }
+
+    private void apply(TaskChangeEvent event) {
+        switch (event.getType()) {
+        case ADDED -> register(event.getTask());
+        case UPDATED -> {
+            unregister(event.getTaskId());
+            register(event.getTask());
+        }
+        case REMOVED -> unregister(event.getTaskId());
+        case RESET -> {
+            timersByTaskId.values().forEach(wheel::cancel);
+            timersByTaskId.clear();
+            event.getTasks().forEach(this::register);
+        }
+        default -> throw new AssertionError("Unknown change: " + event.getType());
+        }
+    }
+
+    private void fireDue(LocalDateTime time) {
+        wheel.advanceTo(toMinute(time), task -> {
+            timersByTaskId.remove(task.getId());
+            listener.accept(formatReminder(task));
+            // The next occurrence of a recurring task takes the place of the one just reminded
+            register(task);
+        });
+    }
+
+    /**
+     * Schedules the next reminder for a task, if it has one still to come.
+     */
+    private void register(Task task) {
+        if (task.isDone()) {
+            return;
+        }
+        long currentMinute = wheel.getCurrentTick();
+        LocalDateTime after = LocalDateTime.ofEpochSecond(
+                TimeUnit.MINUTES.toSeconds(currentMinute), 0, ZoneOffset.UTC);
+        LocalDateTime next = null;
+        if (task instanceof RecurringDeadline recurringDeadline) {
+            next = recurringDeadline.occurrencesBetween(after, LocalDateTime.MAX)
+                    .filter(time -> toMinute(time) > currentMinute).findFirst().orElse(null);
+        } else if (task instanceof Deadline deadline) {
+            next = deadline.getByDateTime();
+        } else if (task instanceof RecurringEvent recurringEvent) {
+            next = recurringEvent.occurrencesBetween(after, LocalDateTime.MAX)
+                    .filter(time -> toMinute(time) > currentMinute).findFirst().orElse(null);
+        } else if (task instanceof Event event) {
+            next = event.getFromDateTime();
+        }
+        if (next != null && toMinute(next) > currentMinute) {
+            timersByTaskId.put(task.getId(), wheel.schedule(toMinute(next), task));
+        }
+    }
+
+    private void unregister(long taskId) {
+        TimerWheel.Timer<Task> timer = timersByTaskId.remove(taskId);
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+
+    private static String formatReminder(Task task) {
+        String when = task instanceof Deadline ? "is due now" : "is starting now";
+        return "Reminder: \"" + task.getDescription() + "\" " + when + ".";
+    }
+
+    /**
+     * Counts whole minutes, with date-times read as they are written, regardless of time zone.
+     */
+    private static long toMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), TimeUnit.MINUTES.toSeconds(1));
+    }
+}
@@ -0,0 +1,99 @@
+package vegetables.manager;
+
+import java.util.List;
+
+import vegetables.task.Task;
+
+/**
+ * Describes one change to the task list of a {@code TaskManager}, as delivered to its subscribers.
+ * <p>
+ * Events arrive in the order the changes were made. Applying them in order to a copy of the list
+ * keeps the copy equal to the list of the manager: the index is the position of the task in the
+ * list at the moment the change was made. A {@link Type#RESET} event means the list was replaced
+ * as a whole, for example by an undo, and carries the new list for the copy to be replaced with.
+ * </p>
+ */
+public final class TaskChangeEvent {
+    /**
+     * The kinds of change a subscriber can observe.
+     */
+    public enum Type {
+        ADDED,
+        UPDATED,
+        REMOVED,
+        RESET
+    }
+
+    private final Type type;
+    private final Task task;
+    private final int index;
+    private final List<Task> tasks;
+
+    private TaskChangeEvent(Type type, Task task, int index, List<Task> tasks) {
+        this.type = type;
+        this.task = task;
+        this.index = index;
+        this.tasks = tasks;
+    }
+
+    static TaskChangeEvent added(Task task, int index) {
+        return new TaskChangeEvent(Type.ADDED, task, index, null);
+    }
+
+    static TaskChangeEvent updated(Task task, int index) {
+        return new TaskChangeEvent(Type.UPDATED, task, index, null);
+    }
+
+    static TaskChangeEvent removed(Task task, int index) {
+        return new TaskChangeEvent(Type.REMOVED, task, index, null);
+    }
+
+    static TaskChangeEvent reset(List<Task> tasks) {
+        return new TaskChangeEvent(Type.RESET, null, -1, tasks);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Returns the id of the task that changed, which stays the same when the task is updated.
+     *
+     * @return The id of the task, or 0 for a reset.
+     */
+    public long getTaskId() {
+        return task == null ? 0 : task.getId();
+    }
+
+    /**
+     * Returns the task after the change; for a removal, the task that was removed.
+     *
+     * @return The task, or null for a reset.
+     */
+    public Task getTask() {
+        return task;
+    }
+
+    /**
+     * Returns the 0-based position of the task in the list when the change was made.
+     *
+     * @return The position of the task, or -1 for a reset.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the whole task list as it is after a reset.
+     *
+     * @return A read-only snapshot of the task list, or null for changes to a single task.
+     */
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    @Override
+    public String toString() {
+        return type + (task == null ? "" : " #" + task.getId() + " at " + index);
+    }
+}
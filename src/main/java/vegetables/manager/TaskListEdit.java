@@ -0,0 +1,178 @@
+package vegetables.manager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import vegetables.task.Task;
+
+/**
+ * A change made to the task list, kept so that it can be undone and redone.
+ * <p>
+ * An edit holds only the tasks it touched and where they were, so the undo history costs memory in
+ * proportion to the changes made rather than to the length of the list. Each edit is applied to the
+ * list exactly as it was left by the edit before it, undoing in reverse order and redoing in order.
+ * </p>
+ */
+abstract class TaskListEdit {
+
+    /**
+     * Returns the list to how it was before the edit.
+     *
+     * @param tasks The list as it is after the edit.
+     */
+    abstract void undo(List<Task> tasks);
+
+    /**
+     * Makes the edit again.
+     *
+     * @param tasks The list as it is before the edit.
+     */
+    abstract void redo(List<Task> tasks);
+
+    /**
+     * Records that a run of tasks starting at the given position was replaced by another run.
+     * Adding a task is replacing no tasks with it, and deleting one is replacing it with none.
+     *
+     * @param from The position of the first task replaced.
+     * @param oldTasks The tasks that were there. Must not change afterwards.
+     * @param newTasks The tasks now there. Must not change afterwards.
+     * @return The edit.
+     */
+    static TaskListEdit splice(int from, List<Task> oldTasks, List<Task> newTasks) {
+        return new Splice(from, oldTasks, newTasks);
+    }
+
+    /**
+     * Records that some tasks were replaced by new versions in the same positions, e.g. when they were marked.
+     *
+     * @param positions The positions of the replaced tasks.
+     * @param oldTasks The tasks that were there, in the same order as the positions.
+     * @param newTasks The tasks now there, in the same order as the positions.
+     * @return The edit.
+     */
+    static TaskListEdit replace(int[] positions, Task[] oldTasks, Task[] newTasks) {
+        assert positions.length == oldTasks.length && positions.length == newTasks.length
+                : "Every position should have an old and a new task";
+        return new Replace(positions, oldTasks, newTasks);
+    }
+
+    /**
+     * Records that tasks were removed from the given positions all at once.
+     *
+     * @param positions The positions the tasks had before any of them was removed, in ascending order.
+     * @param removedTasks The removed tasks, in the same order as the positions.
+     * @return The edit.
+     */
+    static TaskListEdit removeAll(int[] positions, Task[] removedTasks) {
+        assert positions.length == removedTasks.length : "Every position should have a removed task";
+        return new RemoveAll(positions, removedTasks);
+    }
+
+    private static class Splice extends TaskListEdit {
+        private final int from;
+        private final List<Task> oldTasks;
+        private final List<Task> newTasks;
+
+        private Splice(int from, List<Task> oldTasks, List<Task> newTasks) {
+            this.from = from;
+            this.oldTasks = oldTasks;
+            this.newTasks = newTasks;
+        }
+
+        @Override
+        void undo(List<Task> tasks) {
+            swap(tasks, newTasks, oldTasks);
+        }
+
+        @Override
+        void redo(List<Task> tasks) {
+            swap(tasks, oldTasks, newTasks);
+        }
+
+        private void swap(List<Task> tasks, List<Task> current, List<Task> next) {
+            List<Task> run = tasks.subList(from, from + current.size());
+            if (current.size() == next.size()) {
+                for (int i = 0; i < next.size(); i++) {
+                    run.set(i, next.get(i));
+                }
+                return;
+            }
+            run.clear();
+            run.addAll(next);
+        }
+    }
+
+    private static class Replace extends TaskListEdit {
+        private final int[] positions;
+        private final Task[] oldTasks;
+        private final Task[] newTasks;
+
+        private Replace(int[] positions, Task[] oldTasks, Task[] newTasks) {
+            this.positions = positions;
+            this.oldTasks = oldTasks;
+            this.newTasks = newTasks;
+        }
+
+        @Override
+        void undo(List<Task> tasks) {
+            for (int i = 0; i < positions.length; i++) {
+                tasks.set(positions[i], oldTasks[i]);
+            }
+        }
+
+        @Override
+        void redo(List<Task> tasks) {
+            for (int i = 0; i < positions.length; i++) {
+                tasks.set(positions[i], newTasks[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes or restores many scattered tasks in a single pass over the list, however many there are.
+     */
+    private static class RemoveAll extends TaskListEdit {
+        private final int[] positions;
+        private final Task[] removedTasks;
+
+        private RemoveAll(int[] positions, Task[] removedTasks) {
+            this.positions = positions;
+            this.removedTasks = removedTasks;
+        }
+
+        @Override
+        void undo(List<Task> tasks) {
+            ArrayList<Task> restored = new ArrayList<>(tasks.size() + positions.length);
+            int next = 0;
+            for (Task task : tasks) {
+                while (next < positions.length && positions[next] == restored.size()) {
+                    restored.add(removedTasks[next++]);
+                }
+                restored.add(task);
+            }
+            while (next < positions.length) {
+                restored.add(removedTasks[next++]);
+            }
+            replaceContents(tasks, restored);
+        }
+
+        @Override
+        void redo(List<Task> tasks) {
+            ArrayList<Task> remaining = new ArrayList<>(tasks.size() - positions.length);
+            int next = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (next < positions.length && positions[next] == i) {
+                    next++;
+                } else {
+                    remaining.add(tasks.get(i));
+                }
+            }
+            replaceContents(tasks, remaining);
+        }
+
+        private static void replaceContents(List<Task> tasks, ArrayList<Task> contents) {
+            tasks.clear();
+            tasks.addAll(contents);
+        }
+    }
+}
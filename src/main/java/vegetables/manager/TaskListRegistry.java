@@ -0,0 +1,281 @@
+package vegetables.manager;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import vegetables.exception.VeggieException;
+import vegetables.storage.StorageFormat;
+import vegetables.storage.TaskStorage;
+
+/**
+ * Opens named task lists on demand and keeps only the most recently used ones in memory.
+ * <p>
+ * Each list is stored in its own files in a shared directory, and is used through a {@link Handle} returned
+ * by {@link #open(String)}. A list stays in memory while any handle to it is open. When more than
+ * {@code capacity} lists are loaded, the least recently used lists with no open handle are evicted: the
+ * saves queued with their storage are finished, and only once they have, each is saved if it changed since it
+ * was loaded or last saved. While every loaded list is in use, or a list's queued saves do not finish in time,
+ * the registry holds more than {@code capacity} lists and evicts the extra ones on a later {@code open}.
+ * </p>
+ * <p>
+ * The registry can be used from several threads. Lists are loaded and saved without holding the registry's
+ * lock, so opening one list never waits for the files of another. While a list is being loaded or evicted,
+ * opening it waits for that to finish. A task manager cannot be used from several threads, so each list
+ * should only be used by one thread at a time.
+ * </p>
+ * <p>
+ * The registry is a library for front ends that serve several users or lists. The console and window front
+ * ends each work on a single list and do not use it.
+ * </p>
+ */
+public class TaskListRegistry {
+    private static final Pattern LIST_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    /**
+     * Keeps a task list in memory until it is closed. Closing a handle again has no effect.
+     */
+    public final class Handle implements AutoCloseable {
+        private final OpenList list;
+        private boolean isClosed;
+
+        private Handle(OpenList list) {
+            this.list = list;
+        }
+
+        public TaskManager getTaskManager() {
+            return list.taskManager;
+        }
+
+        /**
+         * Returns the storage the list is saved with.
+         *
+         * @return The storage of the list.
+         */
+        public TaskStorage getStorage() {
+            synchronized (TaskListRegistry.this) {
+                return list.taskStorage;
+            }
+        }
+
+        /**
+         * Releases the list, which can be evicted once no other handle to it is open.
+         */
+        @Override
+        public void close() {
+            synchronized (TaskListRegistry.this) {
+                if (!isClosed) {
+                    isClosed = true;
+                    list.handleCount--;
+                }
+            }
+        }
+    }
+
+    /**
+     * A loaded task list, the version of it that is on disk and the number of open handles to it.
+     */
+    private static class OpenList {
+        private final TaskManager taskManager;
+        // Replaced if the list could not be saved on eviction, as the old storage is shut down by then
+        private TaskStorage taskStorage;
+        private long savedVersion;
+        private int handleCount;
+
+        private OpenList(TaskManager taskManager, TaskStorage taskStorage) {
+            this.taskManager = taskManager;
+            this.taskStorage = taskStorage;
+            this.savedVersion = taskManager.getVersion();
+        }
+
+        private synchronized boolean isDirty() {
+            return taskManager.getVersion() != savedVersion;
+        }
+
+        private synchronized void save() throws VeggieException {
+            long version = taskManager.getVersion();
+            taskStorage.persistTasks(taskManager.getTasks());
+            savedVersion = version;
+        }
+    }
+
+    private final File directory;
+    private final int capacity;
+    private final StorageFormat format;
+    // Guarded by this
+    private final LinkedHashMap<String, OpenList> openLists = new LinkedHashMap<>(16, 0.75f, true);
+    // Lists being loaded or evicted, completed once they are in memory or gone; guarded by this
+    private final HashMap<String, CompletableFuture<Void>> busyLists = new HashMap<>();
+
+    /**
+     * Constructs a registry of task lists stored in the given directory.
+     *
+     * @param directory The directory holding the files of every list.
+     * @param capacity The maximum number of lists kept in memory.
+     * @param format The format new saves are written in.
+     */
+    public TaskListRegistry(File directory, int capacity, StorageFormat format) {
+        assert capacity > 0 : "Capacity should be positive";
+        this.directory = directory;
+        this.capacity = capacity;
+        this.format = format;
+    }
+
+    /**
+     * Opens a task list, loading it from disk if it is not in memory. A list that has never been saved
+     * starts empty. The list stays in memory until the returned handle is closed.
+     *
+     * @param name The name of the list: 1 to 64 letters, digits, '-' or '_'.
+     * @return A handle to the list, to be closed once the caller is done with it.
+     * @throws VeggieException If the name is invalid, or a list that had to be evicted could not be saved.
+     */
+    public Handle open(String name) throws VeggieException {
+        if (!LIST_NAME.matcher(name).matches()) {
+            throw new VeggieException("Invalid list name: " + name
+                    + ". Use up to 64 letters, digits, '-' or '_'.");
+        }
+        CompletableFuture<Void> loading = new CompletableFuture<>();
+        while (true) {
+            CompletableFuture<Void> busy;
+            synchronized (this) {
+                OpenList list = openLists.get(name);
+                if (list != null) {
+                    list.handleCount++;
+                    return new Handle(list);
+                }
+                busy = busyLists.putIfAbsent(name, loading);
+            }
+            if (busy == null) {
+                return load(name, loading);
+            }
+            // Another thread is loading or evicting the list; once it is done, the list is in memory or on disk
+            busy.join();
+        }
+    }
+
+    private Handle load(String name, CompletableFuture<Void> loading) throws VeggieException {
+        try {
+            evictIfFull();
+            TaskStorage taskStorage = createStorage(name);
+            OpenList list = new OpenList(new TaskManager(taskStorage.loadTasks()), taskStorage);
+            synchronized (this) {
+                openLists.put(name, list);
+                list.handleCount++;
+                return new Handle(list);
+            }
+        } finally {
+            synchronized (this) {
+                busyLists.remove(name);
+            }
+            loading.complete(null);
+        }
+    }
+
+    /**
+     * Returns whether a task list is currently held in memory.
+     *
+     * @param name The name of the list.
+     * @return true if the list is loaded, false otherwise.
+     */
+    public synchronized boolean isLoaded(String name) {
+        return openLists.containsKey(name);
+    }
+
+    /**
+     * Saves every loaded list that changed since it was loaded or last saved, e.g. before shutting down.
+     * Lists with open handles are saved too, so they should not be changed until this returns.
+     *
+     * @throws VeggieException If a list could not be saved; the other lists are still saved.
+     */
+    public void flush() throws VeggieException {
+        LinkedHashMap<String, OpenList> lists;
+        synchronized (this) {
+            lists = new LinkedHashMap<>(openLists);
+        }
+        ArrayList<String> failures = new ArrayList<>();
+        for (Map.Entry<String, OpenList> entry : lists.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                try {
+                    entry.getValue().save();
+                } catch (VeggieException e) {
+                    failures.add(entry.getKey());
+                }
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new VeggieException("Could not save task lists: " + String.join(", ", failures));
+        }
+    }
+
+    private TaskStorage createStorage(String name) {
+        return new TaskStorage(directory, name, format, 0);
+    }
+
+    /**
+     * Evicts the least recently used lists not in use until there is room for one more, trying each at most once.
+     */
+    private void evictIfFull() throws VeggieException {
+        HashSet<String> tried = new HashSet<>();
+        while (true) {
+            String name = null;
+            OpenList list = null;
+            CompletableFuture<Void> evicting = new CompletableFuture<>();
+            synchronized (this) {
+                if (openLists.size() < capacity) {
+                    return;
+                }
+                for (Map.Entry<String, OpenList> entry : openLists.entrySet()) {
+                    if (entry.getValue().handleCount == 0 && tried.add(entry.getKey())) {
+                        name = entry.getKey();
+                        list = entry.getValue();
+                        break;
+                    }
+                }
+                if (list == null) {
+                    return;
+                }
+                openLists.remove(name);
+                busyLists.put(name, evicting);
+            }
+            try {
+                evict(name, list);
+            } finally {
+                synchronized (this) {
+                    busyLists.remove(name);
+                }
+                evicting.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Saves a list that was taken out of the registry, or puts it back if it cannot be evicted yet.
+     */
+    private void evict(String name, OpenList list) throws VeggieException {
+        // Saves still queued in the background hold older versions, so they must be written first
+        if (!list.taskStorage.shutdown()) {
+            // Still writing: the list keeps its storage so that no save overtakes the running ones
+            putBack(name, list, list.taskStorage);
+            return;
+        }
+        if (list.isDirty()) {
+            try {
+                list.save();
+            } catch (VeggieException e) {
+                // A list that cannot be saved stays in memory rather than losing its changes
+                putBack(name, list, createStorage(name));
+                throw e;
+            }
+        }
+    }
+
+    private synchronized void putBack(String name, OpenList list, TaskStorage taskStorage) {
+        list.taskStorage = taskStorage;
+        openLists.put(name, list);
+    }
+}
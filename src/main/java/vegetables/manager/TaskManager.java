@@ -1,11 +1,32 @@
 package vegetables.manager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
 
 import vegetables.exception.VeggieException;
+import vegetables.jfr.EventClashCheckEvent;
+import vegetables.jfr.TaskSearchEvent;
+import vegetables.search.SearchIndex;
+import vegetables.search.SearchQuery;
 import vegetables.task.Deadline;
 import vegetables.task.Event;
+import vegetables.task.Occurrence;
+import vegetables.task.Recurrence;
+import vegetables.task.RecurringDeadline;
+import vegetables.task.RecurringEvent;
 import vegetables.task.Task;
 import vegetables.task.ToDo;
 
@@ -14,17 +35,270 @@ import vegetables.task.ToDo;
  * types of tasks (To-Do, Deadline, Event), marking tasks as done or not done, deleting tasks,
  * and searching tasks by their description. It also ensures the validity of inputs such as deadlines
  * and event times.
+ * <p>
+ * Every change produces a new version of the task list. The list is changed in place, and each change
+ * is kept for undo as a {@link TaskListEdit} holding only the tasks it touched. The list is a
+ * {@link ChunkedTaskList}, which shares its chunks with the snapshots handed out, so a change made after a
+ * snapshot copies only the chunk it touches rather than the whole list. Tasks are never mutated in
+ * place once they are in the list, so snapshots stay consistent while new commands keep running.
+ * </p>
+ * <p>
+ * Every task in the list is given an id that stays with it when its status changes, and changes
+ * to the list are published to subscribers of {@link #getChanges()} as {@link TaskChangeEvent}s.
+ * </p>
  */
 public class TaskManager {
-    private final ArrayList<Task> tasks;
+    private static final int MAX_HISTORY = 100;
+
+    private ChunkedTaskList tasks;
+    private final ArrayDeque<TaskListEdit> undoHistory = new ArrayDeque<>();
+    private final ArrayDeque<TaskListEdit> redoHistory = new ArrayDeque<>();
+    private CalendarIndex calendarIndex;
+    private SearchIndex searchIndex;
+    private long version;
+    private long lastTaskId;
+    private SubmissionPublisher<TaskChangeEvent> changePublisher;
+    private final Executor changeExecutor;
 
     /**
      * Constructs a TaskManager instance with an initial list of tasks.
      *
      * @param tasks The list of tasks to initialize the TaskManager with.
      */
-    public TaskManager(ArrayList<Task> tasks) {
-        this.tasks = tasks;
+    public TaskManager(List<Task> tasks) {
+        this(tasks, null);
+    }
+
+    /**
+     * Constructs a TaskManager whose changes are delivered to subscribers by the given executor.
+     * A direct executor such as {@code Runnable::run} delivers each change before the call making it returns.
+     *
+     * @param tasks The list of tasks to initialize the TaskManager with.
+     * @param changeExecutor The executor delivering changes, or null for the default of {@link SubmissionPublisher}.
+     */
+    TaskManager(List<Task> tasks, Executor changeExecutor) {
+        this.tasks = new ChunkedTaskList(tasks);
+        this.changeExecutor = changeExecutor;
+        for (Task task : tasks) {
+            task.assignId(++lastTaskId);
+        }
+    }
+
+    /**
+     * Returns a publisher of every later change to the task list, in the order the changes are made.
+     * <p>
+     * Each subscriber receives events only as fast as it requests them. Events it has not yet requested
+     * are buffered, and once its buffer is full the change that publishes the next event waits until the
+     * subscriber catches up. Subscribers must therefore not wait on the thread that changes the task list.
+     * Nothing is published while there are no subscribers.
+     * </p>
+     *
+     * @return The publisher of task list changes.
+     */
+    public Flow.Publisher<TaskChangeEvent> getChanges() {
+        if (changePublisher == null) {
+            changePublisher = changeExecutor == null
+                    ? new SubmissionPublisher<>()
+                    : new SubmissionPublisher<>(changeExecutor, Flow.defaultBufferSize());
+        }
+        return changePublisher;
+    }
+
+    /**
+     * Completes every subscription to {@link #getChanges()} once the events already published are delivered.
+     */
+    public void closeChanges() {
+        if (changePublisher != null) {
+            changePublisher.close();
+        }
+    }
+
+    /**
+     * Starts a new version. Must be called by every operation before it changes the task list,
+     * which then records its edit.
+     */
+    private void beginChange() {
+        version++;
+        redoHistory.clear();
+    }
+
+    /**
+     * Replaces the task list with a newly built version, recording the edit between them for undo.
+     * Used by bulk operations that build the next version directly instead of editing in place.
+     */
+    private void commitVersion(List<Task> nextTasks, TaskListEdit edit) {
+        version++;
+        redoHistory.clear();
+        tasks = new ChunkedTaskList(nextTasks);
+        recordEdit(edit);
+    }
+
+    /**
+     * Keeps an edit just made for undo, forgetting the oldest one once the history is full.
+     */
+    private void recordEdit(TaskListEdit edit) {
+        if (undoHistory.size() == MAX_HISTORY) {
+            undoHistory.removeLast();
+        }
+        undoHistory.push(edit);
+    }
+
+    private void appendTask(Task newTask) {
+        beginChange();
+        tasks.add(newTask);
+        recordEdit(TaskListEdit.splice(tasks.size() - 1, List.of(), List.of(newTask)));
+        onTaskAdded(newTask, tasks.size() - 1);
+    }
+
+    private Task replaceTask(int index, Task newTask) {
+        beginChange();
+        Task oldTask = tasks.set(index, newTask);
+        recordEdit(TaskListEdit.splice(index, List.of(oldTask), List.of(newTask)));
+        onTaskReplaced(oldTask, newTask, index);
+        return newTask;
+    }
+
+    private void onTaskAdded(Task task, int index) {
+        task.assignId(++lastTaskId);
+        indexTask(task);
+        publish(TaskChangeEvent.added(task, index));
+    }
+
+    private void onTaskRemoved(Task task, int index) {
+        unindexTask(task);
+        publish(TaskChangeEvent.removed(task, index));
+    }
+
+    private void onTaskReplaced(Task oldTask, Task newTask, int index) {
+        if (calendarIndex != null) {
+            calendarIndex.remove(oldTask);
+            calendarIndex.add(newTask);
+        }
+        if (searchIndex != null) {
+            // The new version keeps its place in search results
+            searchIndex.replace(oldTask, newTask);
+        }
+        publish(TaskChangeEvent.updated(newTask, index));
+    }
+
+    /**
+     * Called when the whole task list is swapped for another version; indexes are rebuilt on next use.
+     */
+    private void onTasksReset() {
+        version++;
+        calendarIndex = null;
+        searchIndex = null;
+        publishReset();
+    }
+
+    private void indexTask(Task task) {
+        if (calendarIndex != null) {
+            calendarIndex.add(task);
+        }
+        if (searchIndex != null) {
+            searchIndex.add(task);
+        }
+    }
+
+    private void unindexTask(Task task) {
+        if (calendarIndex != null) {
+            calendarIndex.remove(task);
+        }
+        if (searchIndex != null) {
+            searchIndex.remove(task);
+        }
+    }
+
+    private boolean hasSubscribers() {
+        return changePublisher != null && changePublisher.hasSubscribers();
+    }
+
+    private void publish(TaskChangeEvent event) {
+        if (hasSubscribers()) {
+            changePublisher.submit(event);
+        }
+    }
+
+    private void publishReset() {
+        if (hasSubscribers()) {
+            changePublisher.submit(TaskChangeEvent.reset(snapshot()));
+        }
+    }
+
+    /**
+     * Builds the indexes used by searches and clash checks now rather than on their first use.
+     * Called on a background thread while the application starts, before the task manager is shared.
+     */
+    public void prepareIndexes() {
+        getCalendarIndex();
+        getSearchIndex();
+    }
+
+    private CalendarIndex getCalendarIndex() {
+        if (calendarIndex == null) {
+            calendarIndex = new CalendarIndex(tasks);
+        }
+        return calendarIndex;
+    }
+
+    private SearchIndex getSearchIndex() {
+        if (searchIndex == null) {
+            searchIndex = new SearchIndex(tasks);
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Returns a read-only, point-in-time view of the task list.
+     * <p>
+     * Taking a snapshot is O(1). Later changes to this TaskManager are not visible through the
+     * snapshot, so it can be handed to another thread, e.g. for a background save.
+     * </p>
+     *
+     * @return An unmodifiable snapshot of the current tasks.
+     */
+    public List<Task> snapshot() {
+        return tasks.snapshot();
+    }
+
+    /**
+     * Returns a counter that changes whenever the task list changes, including undo and redo.
+     * Callers caching anything derived from the tasks can compare it to tell whether they are stale.
+     *
+     * @return The current mutation counter.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Restores the version of the task list from before the most recent change.
+     *
+     * @throws VeggieException If there is no change to undo.
+     */
+    public void undo() throws VeggieException {
+        if (undoHistory.isEmpty()) {
+            throw new VeggieException("Nothing to undo.");
+        }
+        TaskListEdit edit = undoHistory.pop();
+        edit.undo(tasks);
+        redoHistory.push(edit);
+        onTasksReset();
+    }
+
+    /**
+     * Re-applies the most recently undone change.
+     *
+     * @throws VeggieException If there is no undone change to redo.
+     */
+    public void redo() throws VeggieException {
+        if (redoHistory.isEmpty()) {
+            throw new VeggieException("Nothing to redo.");
+        }
+        TaskListEdit edit = redoHistory.pop();
+        edit.redo(tasks);
+        undoHistory.push(edit);
+        onTasksReset();
     }
 
     /**
@@ -50,7 +324,7 @@ public class TaskManager {
      */
     public void addToDoTask(String description) {
         Task newTask = new ToDo(description);
-        tasks.add(newTask);
+        appendTask(newTask);
     }
 
     /**
@@ -62,6 +336,30 @@ public class TaskManager {
      * @throws VeggieException If the description is empty or the deadline format is incorrect.
      */
     public void addDeadlineTask(String description, String deadline) throws VeggieException {
+        validateDeadline(description, deadline);
+
+        Task newTask = new Deadline(description, deadline);
+        appendTask(newTask);
+    }
+
+    /**
+     * Adds a recurring Deadline task to the task list. The deadline is the first occurrence of the series;
+     * later occurrences are generated from the recurrence when they are queried.
+     *
+     * @param description The description of the Deadline task to be added.
+     * @param deadline The first deadline of the series, in the format yyyy-MM-dd HH:mm.
+     * @param recurrence How the deadline repeats.
+     * @throws VeggieException If the description is empty or the deadline format is incorrect.
+     */
+    public void addRecurringDeadlineTask(String description, String deadline, Recurrence recurrence)
+            throws VeggieException {
+        validateDeadline(description, deadline);
+
+        Task newTask = new RecurringDeadline(description, deadline, recurrence);
+        appendTask(newTask);
+    }
+
+    private void validateDeadline(String description, String deadline) throws VeggieException {
         if (description == null || description.trim().isEmpty()) {
             throw new VeggieException("Task description cannot be empty.");
         }
@@ -69,9 +367,6 @@ public class TaskManager {
         if (!deadline.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}")) {
             throw new VeggieException("Invalid deadline format. Use: yyyy-MM-dd HH:mm");
         }
-
-        Task newTask = new Deadline(description, deadline);
-        tasks.add(newTask);
     }
 
     /**
@@ -84,6 +379,31 @@ public class TaskManager {
      * @throws VeggieException If any field is empty or, format is incorrect.
      */
     public void addEventTask(String description, String from, String to) throws VeggieException {
+        validateEvent(description, from, to);
+
+        Task newTask = new Event(description, from, to);
+        appendTask(newTask);
+    }
+
+    /**
+     * Adds a recurring Event task to the task list. The start and end times are those of the first
+     * occurrence; later occurrences are generated from the recurrence when they are queried.
+     *
+     * @param description The description of the Event task to be added.
+     * @param from The start time of the first occurrence, in the format yyyy-MM-dd HH:mm.
+     * @param to The end time of the first occurrence, in the format yyyy-MM-dd HH:mm.
+     * @param recurrence How the event repeats.
+     * @throws VeggieException If any field is empty or, format is incorrect.
+     */
+    public void addRecurringEventTask(String description, String from, String to, Recurrence recurrence)
+            throws VeggieException {
+        validateEvent(description, from, to);
+
+        Task newTask = new RecurringEvent(description, from, to, recurrence);
+        appendTask(newTask);
+    }
+
+    private void validateEvent(String description, String from, String to) throws VeggieException {
         if (description == null || description.trim().isEmpty()) {
             throw new VeggieException("Event description cannot be empty.");
         }
@@ -95,9 +415,6 @@ public class TaskManager {
         if (!from.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}") || !to.matches("\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}")) {
             throw new VeggieException("Invalid time format. Correct format: yyyy-MM-dd HH:mm");
         }
-
-        Task newTask = new Event(description, from, to);
-        tasks.add(newTask);
     }
 
     /**
@@ -108,24 +425,123 @@ public class TaskManager {
      * @return A StringBuilder containing any warnings about overlapping events.
      */
     public StringBuilder checkEventClash(LocalDateTime newFrom, LocalDateTime newTo) {
+        EventClashCheckEvent event = new EventClashCheckEvent();
+        event.begin();
         StringBuilder warningMessage = new StringBuilder();
+        int clashes = 0;
+
+        // Only events on the days around the new event are candidates
+        ArrayList<Occurrence> candidates = getCalendarIndex().findOccurrences(newFrom, newTo);
+        Set<Task> clashingEvents = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Occurrence occurrence : candidates) {
+            Task task = occurrence.getTask();
+            // A recurring event is reported once, however many of its occurrences overlap
+            if (task instanceof Event && clashingEvents.add(task)) {
+                warningMessage.append("Warning: The event \"")
+                        .append(task.getDescription())
+                        .append("\" overlaps with the new event.\n");
+                clashes++;
+            }
+        }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.setCandidatesScanned(candidates.size());
+            event.setClashes(clashes);
+            event.commit();
+        }
+        return warningMessage.length() > 0 ? warningMessage : null;
+    }
+
+    /**
+     * Returns every occurrence of a Deadline or Event task that falls within {@code [from, to)}, in time order.
+     * <p>
+     * The query is answered from a calendar index that buckets tasks by day, so only the days in the
+     * window are looked at. Recurring tasks contribute one occurrence per repetition inside the window;
+     * the repetitions are generated for this query only and are not stored.
+     * </p>
+     *
+     * @param from The start of the window.
+     * @param to The end of the window.
+     * @return The occurrences within the window, sorted by start time.
+     */
+    public ArrayList<Occurrence> findOccurrences(LocalDateTime from, LocalDateTime to) {
+        return getCalendarIndex().findOccurrences(from, to);
+    }
+
+    /**
+     * Finds every pair of events in the list that overlap, in O(n log n + k) for n event occurrences and k pairs.
+     * <p>
+     * A recurring event takes part with each of its repetitions up to the given horizon, since a series
+     * without an end date repeats forever. One-off events ending after the horizon are then checked against
+     * each series directly, by looking up the repetitions they overlap, so that an event far in the future
+     * does not make every series expand up to it. Two series are only compared up to the horizon.
+     * A pair of events is reported once, at the first of their occurrences that overlap.
+     * </p>
+     *
+     * @param horizon The time up to which repetitions of recurring events are listed.
+     * @return The overlapping pairs, ordered by the start of the later event of each pair.
+     */
+    public List<EventConflict> findEventConflicts(LocalDateTime horizon) {
+        ArrayList<Occurrence> occurrences = new ArrayList<>();
+        ArrayList<RecurringEvent> recurringEvents = new ArrayList<>();
+        ArrayList<Occurrence> lateEvents = new ArrayList<>();
         for (Task task : tasks) {
-            if (task instanceof Event) {
-                Event existingEvent = (Event) task;
-                // Use the raw LocalDateTime values directly
-                LocalDateTime existingFrom = existingEvent.getFromDateTime();
-                LocalDateTime existingTo = existingEvent.getToDateTime();
-
-                // Check if there's an overlap
-                if ((newFrom.isBefore(existingTo) && newTo.isAfter(existingFrom))) {
-                    warningMessage.append("Warning: The event \"")
-                            .append(existingEvent.getDescription())
-                            .append("\" overlaps with the new event.\n");
+            if (task instanceof RecurringEvent recurringEvent) {
+                recurringEvents.add(recurringEvent);
+            } else if (task instanceof Event event) {
+                Occurrence occurrence = new Occurrence(event, event.getFromDateTime(), event.getToDateTime());
+                occurrences.add(occurrence);
+                if (occurrence.getEnd().isAfter(horizon)) {
+                    lateEvents.add(occurrence);
                 }
             }
         }
-        return warningMessage.length() > 0 ? warningMessage : null;
+        for (RecurringEvent recurringEvent : recurringEvents) {
+            Duration length = recurringEvent.getLength();
+            recurringEvent.occurrencesBetween(recurringEvent.getFromDateTime(), horizon).forEach(start ->
+                    occurrences.add(new Occurrence(recurringEvent, start, start.plus(length))));
+        }
+        List<EventConflict> conflicts = ConflictSweep.findConflicts(occurrences.toArray(new Occurrence[0]));
+        if (lateEvents.isEmpty() || recurringEvents.isEmpty()) {
+            return conflicts;
+        }
+
+        // Repetitions from the horizon on were not listed; look up the first one overlapping each late event
+        IdentityHashMap<Task, Set<Task>> seriesByEvent = new IdentityHashMap<>();
+        for (EventConflict conflict : conflicts) {
+            Task first = conflict.getFirst().getTask();
+            Task second = conflict.getSecond().getTask();
+            if (first instanceof RecurringEvent != second instanceof RecurringEvent) {
+                Task event = first instanceof RecurringEvent ? second : first;
+                Task series = first instanceof RecurringEvent ? first : second;
+                seriesByEvent.computeIfAbsent(event, key -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                        .add(series);
+            }
+        }
+        List<EventConflict> lateConflicts = new ArrayList<>(conflicts);
+        for (Occurrence lateEvent : lateEvents) {
+            if (!lateEvent.getEnd().isAfter(lateEvent.getStart())) {
+                continue;
+            }
+            Set<Task> pairedSeries = seriesByEvent.getOrDefault(lateEvent.getTask(), Set.of());
+            LocalDateTime from = lateEvent.getStart().isAfter(horizon) ? lateEvent.getStart() : horizon;
+            for (RecurringEvent recurringEvent : recurringEvents) {
+                Duration length = recurringEvent.getLength();
+                if (length.isZero() || pairedSeries.contains(recurringEvent)) {
+                    continue;
+                }
+                recurringEvent.occurrencesBetween(from, lateEvent.getEnd())
+                        .filter(start -> !start.isBefore(horizon))
+                        .findFirst()
+                        .map(start -> new Occurrence(recurringEvent, start, start.plus(length)))
+                        .ifPresent(repetition -> lateConflicts.add(repetition.getStart().isBefore(lateEvent.getStart())
+                                ? new EventConflict(repetition, lateEvent)
+                                : new EventConflict(lateEvent, repetition)));
+            }
+        }
+        lateConflicts.sort(Comparator.comparing(conflict -> conflict.getSecond().getStart()));
+        return lateConflicts;
     }
 
     /**
@@ -143,8 +559,7 @@ public class TaskManager {
         if (taskNumber < 1 || taskNumber > tasks.size()) {
             throw new VeggieException("Task number out of range.");
         }
-        Task task = tasks.get(taskNumber - 1);
-        task.markAsDone();
+        Task task = replaceTask(taskNumber - 1, tasks.get(taskNumber - 1).withStatus(true));
         return "Task marked as done: " + task;
     }
 
@@ -163,8 +578,7 @@ public class TaskManager {
         if (taskNumber < 1 || taskNumber > tasks.size()) {
             throw new VeggieException("Task number out of range.");
         }
-        Task task = tasks.get(taskNumber - 1);
-        task.markAsNotDone(); // Unmark the task
+        Task task = replaceTask(taskNumber - 1, tasks.get(taskNumber - 1).withStatus(false)); // Unmark the task
         return "Task marked as not done: " + task; // Return message
     }
 
@@ -178,31 +592,296 @@ public class TaskManager {
         if (taskNumber < 1 || taskNumber > tasks.size()) {
             throw new VeggieException("Task number out of range.");
         }
-        tasks.remove(taskNumber - 1);
+        beginChange();
+        Task removedTask = tasks.remove(taskNumber - 1);
+        recordEdit(TaskListEdit.splice(taskNumber - 1, List.of(removedTask), List.of()));
+        onTaskRemoved(removedTask, taskNumber - 1);
+    }
+
+    /**
+     * Sets the completion status of several tasks in one operation.
+     *
+     * @param taskNumbers The numbers of the tasks to update (1-based), in ascending order.
+     * @param isDone The completion status to set.
+     * @throws VeggieException If any task number is out of range.
+     */
+    public void markTasks(int[] taskNumbers, boolean isDone) throws VeggieException {
+        checkTaskNumbers(taskNumbers);
+        beginChange();
+        int[] positions = new int[taskNumbers.length];
+        Task[] oldTasks = new Task[taskNumbers.length];
+        Task[] newTasks = new Task[taskNumbers.length];
+        int count = 0;
+        for (int taskNumber : taskNumbers) {
+            Task task = tasks.get(taskNumber - 1);
+            if (task.isDone() != isDone) {
+                Task updatedTask = task.withStatus(isDone);
+                tasks.set(taskNumber - 1, updatedTask);
+                positions[count] = taskNumber - 1;
+                oldTasks[count] = task;
+                newTasks[count++] = updatedTask;
+                onTaskReplaced(task, updatedTask, taskNumber - 1);
+            }
+        }
+        recordEdit(TaskListEdit.replace(Arrays.copyOf(positions, count), Arrays.copyOf(oldTasks, count),
+                Arrays.copyOf(newTasks, count)));
+    }
+
+    /**
+     * Deletes several tasks in one operation. The remaining tasks are compacted into the
+     * next version of the list in a single pass, however many tasks are deleted.
+     *
+     * @param taskNumbers The numbers of the tasks to delete (1-based), in ascending order.
+     * @throws VeggieException If any task number is out of range.
+     */
+    public void deleteTasks(int[] taskNumbers) throws VeggieException {
+        checkTaskNumbers(taskNumbers);
+        ArrayList<Task> remainingTasks = new ArrayList<>(tasks.size() - taskNumbers.length);
+        int[] positions = new int[taskNumbers.length];
+        Task[] removedTasks = new Task[taskNumbers.length];
+        int next = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (next < taskNumbers.length && taskNumbers[next] == i + 1) {
+                // Positions are counted in the list as it is once the earlier tasks of the batch are gone
+                onTaskRemoved(tasks.get(i), i - next);
+                positions[next] = i;
+                removedTasks[next++] = tasks.get(i);
+            } else {
+                remainingTasks.add(tasks.get(i));
+            }
+        }
+        commitVersion(remainingTasks, TaskListEdit.removeAll(positions, removedTasks));
+    }
+
+    private void checkTaskNumbers(int[] taskNumbers) throws VeggieException {
+        for (int i = 0; i < taskNumbers.length; i++) {
+            if (taskNumbers[i] < 1 || taskNumbers[i] > tasks.size()) {
+                throw new VeggieException("Task number out of range.");
+            }
+            if (i > 0 && taskNumbers[i] <= taskNumbers[i - 1]) {
+                throw new VeggieException("Task numbers must be in ascending order.");
+            }
+        }
+    }
+
+    /**
+     * Returns the numbers of all tasks that can be moved to the archive: tasks marked as done,
+     * and one-off events that ended before {@code now}.
+     *
+     * @param now The current time.
+     * @return The task numbers (1-based) of archivable tasks, in ascending order.
+     */
+    public int[] getArchivableTaskNumbers(LocalDateTime now) {
+        int[] taskNumbers = new int[tasks.size()];
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            Task task = tasks.get(i);
+            boolean isPastEvent = task instanceof Event && !(task instanceof RecurringEvent)
+                    && ((Event) task).getToDateTime().isBefore(now);
+            if (task.isDone() || isPastEvent) {
+                taskNumbers[count++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(taskNumbers, count);
+    }
+
+    /**
+     * Removes tasks that have been written to the archive.
+     * <p>
+     * Unlike {@link #deleteTasks(int[])}, archiving cannot be undone: the undo and redo history is
+     * cleared, since restoring an older version would duplicate tasks that are already in the archive.
+     * </p>
+     *
+     * @param taskNumbers The numbers of the archived tasks (1-based), in ascending order.
+     * @throws VeggieException If any task number is out of range.
+     */
+    public void removeArchivedTasks(int[] taskNumbers) throws VeggieException {
+        deleteTasks(taskNumbers);
+        undoHistory.clear();
+        redoHistory.clear();
+    }
+
+    /**
+     * Returns the numbers of all tasks that are marked as done.
+     *
+     * @return The task numbers (1-based) of done tasks, in ascending order.
+     */
+    public int[] getDoneTaskNumbers() {
+        int[] taskNumbers = new int[tasks.size()];
+        int count = 0;
+        for (int i = 0; i < tasks.size(); i++) {
+            if (tasks.get(i).isDone()) {
+                taskNumbers[count++] = i + 1;
+            }
+        }
+        return Arrays.copyOf(taskNumbers, count);
+    }
+
+    /**
+     * Brings the task list in line with a version of it that was changed outside this program, e.g. reloaded
+     * after another tool edited the task file.
+     * <p>
+     * Tasks are compared by their file representation. The unchanged start and end of the list are skipped,
+     * and in between every loaded task that matches an existing one keeps the existing instance, so only
+     * added and removed records touch the indexes. Subscribers to changes are sent the removal of the old
+     * tasks in between and the addition of the new ones, or a reset if that would take more events than the
+     * list has tasks. The change can be undone like any other.
+     * </p>
+     *
+     * @param loadedTasks The task list as it is now stored.
+     * @return The number of records added or removed.
+     */
+    public int reconcile(List<Task> loadedTasks) {
+        int oldSize = tasks.size();
+        int newSize = loadedTasks.size();
+        int prefix = 0;
+        while (prefix < oldSize && prefix < newSize && isSameRecord(tasks.get(prefix), loadedTasks.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < oldSize - prefix && suffix < newSize - prefix
+                && isSameRecord(tasks.get(oldSize - 1 - suffix), loadedTasks.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+        if (prefix + suffix == oldSize && oldSize == newSize) {
+            return 0;
+        }
+
+        HashMap<String, ArrayDeque<Task>> existing = new HashMap<>();
+        for (Task task : tasks.subList(prefix, oldSize - suffix)) {
+            existing.computeIfAbsent(task.toFileString(), key -> new ArrayDeque<>()).add(task);
+        }
+        ArrayList<Task> middle = new ArrayList<>(newSize - prefix - suffix);
+        ArrayList<Task> added = new ArrayList<>();
+        for (Task loadedTask : loadedTasks.subList(prefix, newSize - suffix)) {
+            ArrayDeque<Task> matches = existing.get(loadedTask.toFileString());
+            Task match = matches == null ? null : matches.poll();
+            if (match == null) {
+                added.add(loadedTask);
+            }
+            middle.add(match == null ? loadedTask : match);
+        }
+
+        beginChange();
+        List<Task> oldMiddle = tasks.subList(prefix, oldSize - suffix);
+        if (suffix > 0 || !isAppendedInOrder(oldMiddle, middle)) {
+            // The search index returns results in the order tasks were indexed, which would no longer be list order
+            searchIndex = null;
+        }
+        ArrayList<Task> removedMiddle = new ArrayList<>(oldMiddle);
+        recordEdit(TaskListEdit.splice(prefix, removedMiddle, middle));
+        oldMiddle.clear();
+        oldMiddle.addAll(middle);
+        int changes = added.size();
+        for (ArrayDeque<Task> removed : existing.values()) {
+            for (Task task : removed) {
+                unindexTask(task);
+                changes++;
+            }
+        }
+        for (Task task : added) {
+            task.assignId(++lastTaskId);
+            indexTask(task);
+        }
+        if (removedMiddle.size() + middle.size() > newSize) {
+            publishReset();
+        } else {
+            // Each removal moves the next old task up to the same position
+            for (Task task : removedMiddle) {
+                publish(TaskChangeEvent.removed(task, prefix));
+            }
+            for (int i = 0; i < middle.size(); i++) {
+                publish(TaskChangeEvent.added(middle.get(i), prefix + i));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Returns whether the new tasks keep the old ones that remain in their order, with any new tasks after them.
+     */
+    private static boolean isAppendedInOrder(List<Task> oldTasks, List<Task> newTasks) {
+        Set<Task> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(oldTasks);
+        int oldIndex = 0;
+        boolean hasNewTask = false;
+        for (Task task : newTasks) {
+            if (!kept.contains(task)) {
+                hasNewTask = true;
+                continue;
+            }
+            while (oldIndex < oldTasks.size() && oldTasks.get(oldIndex) != task) {
+                oldIndex++;
+            }
+            if (hasNewTask || oldIndex == oldTasks.size()) {
+                return false;
+            }
+            oldIndex++;
+        }
+        return true;
+    }
+
+    private static boolean isSameRecord(Task task, Task other) {
+        return task == other || task.toFileString().equals(other.toFileString());
     }
 
     /**
      * Finds tasks in the list that match a given substring in their description.
+     * Unlike {@link #search(SearchQuery)}, which matches whole words, the keyword may be part of a word.
      *
      * @param keyword The keyword to search for in task descriptions.
      * @return A list of tasks whose descriptions contain the substring.
      */
     public ArrayList<Task> findTasksBySubstring(String keyword) {
+        TaskSearchEvent event = new TaskSearchEvent();
+        event.begin();
+        // The same locale as the type-ahead search, so that both find the same tasks
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
         ArrayList<Task> matchingTasks = new ArrayList<>();
         for (Task task : tasks) {
-            if (task.getDescription().toLowerCase().contains(keyword.toLowerCase())) {
+            if (task.getDescription().toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
                 matchingTasks.add(task);
             }
         }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setKeywordLength(keyword.length());
+            event.setCandidatesScanned(tasks.size());
+            event.setHits(matchingTasks.size());
+            event.commit();
+        }
+        return matchingTasks;
+    }
+
+    /**
+     * Finds tasks matching a query with boolean operators, fuzzy terms and filters, most relevant first.
+     *
+     * @param query The parsed query.
+     * @return A list of matching tasks.
+     */
+    public ArrayList<Task> search(SearchQuery query) {
+        TaskSearchEvent event = new TaskSearchEvent();
+        event.begin();
+        ArrayList<Task> matchingTasks = getSearchIndex().search(query);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.setKeywordLength(query.getText().length());
+            event.setCandidatesScanned(tasks.size());
+            event.setHits(matchingTasks.size());
+            event.commit();
+        }
         return matchingTasks;
     }
 
     /**
      * Returns the list of all tasks managed by the TaskManager.
+     * The list must be treated as read-only; use {@link #snapshot()} to keep a stable copy.
      *
      * @return The list of tasks.
      */
-    public ArrayList<Task> getTasks() {
+    public List<Task> getTasks() {
         return tasks;
     }
 }
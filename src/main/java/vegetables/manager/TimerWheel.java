@@ -0,0 +1,218 @@
+package vegetables.manager;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel: timers are scheduled and cancelled in constant time, and advancing the
+ * clock only looks at the timers that are due, however many are pending.
+ * <p>
+ * Time is counted in whole ticks. The first level has one slot per tick for the next 64 ticks, and
+ * every further level has slots 64 times as wide. A timer is kept in the level that matches how far
+ * away it is, and when the clock enters one of its slots, the timers in that slot move down to finer
+ * levels, until they reach the first level and fire. Timers beyond the last level wait in an overflow
+ * list that is sorted back into the wheel whenever the last level moves on a slot. Stretches of time
+ * in which the finer levels are empty are skipped over rather than stepped through.
+ * </p>
+ * <p>
+ * Not thread-safe; it is meant to be owned by one thread.
+ * </p>
+ *
+ * @param <T> The type of the values carried by the timers.
+ */
+final class TimerWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 5;
+    // Timers in the overflow list are counted as one level above the last
+    private static final int OVERFLOW_LEVEL = LEVELS;
+
+    private final Timer<T>[][] wheel;
+    private final Timer<T> overflow = new Timer<>(0, null);
+    private final int[] levelSizes = new int[LEVELS + 1];
+    private long currentTick;
+    private int size;
+
+    /**
+     * A scheduled timer, which can be cancelled until it fires.
+     *
+     * @param <T> The type of the value carried by the timer.
+     */
+    static final class Timer<T> {
+        private final long tick;
+        private final T value;
+        private Timer<T> previous = this;
+        private Timer<T> next = this;
+        private int level;
+
+        private Timer(long tick, T value) {
+            this.tick = tick;
+            this.value = value;
+        }
+
+        long getTick() {
+            return tick;
+        }
+
+        T getValue() {
+            return value;
+        }
+
+        boolean isScheduled() {
+            return next != this;
+        }
+    }
+
+    /**
+     * Creates an empty wheel.
+     *
+     * @param startTick The current tick.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TimerWheel(long startTick) {
+        this.currentTick = startTick;
+        this.wheel = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : wheel) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                // Each slot is a circular list headed by an empty timer
+                level[slot] = new Timer<>(0, null);
+            }
+        }
+    }
+
+    long getCurrentTick() {
+        return currentTick;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer. A timer for the current tick or earlier fires on the next advance.
+     *
+     * @param tick The tick at which the timer fires.
+     * @param value The value handed back when the timer fires.
+     * @return The timer, to cancel it.
+     */
+    Timer<T> schedule(long tick, T value) {
+        Timer<T> timer = new Timer<>(tick, value);
+        // The slot for the current tick has already fired
+        insert(timer, currentTick + 1);
+        size++;
+        return timer;
+    }
+
+    /**
+     * Cancels a timer that has not fired yet. Cancelling it again has no effect.
+     *
+     * @param timer The timer to cancel.
+     */
+    void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the clock forward, firing every timer due up to and including the given tick.
+     *
+     * @param tick The tick to move to.
+     * @param onFired Receives the value of each timer that fires, in tick order.
+     */
+    void advanceTo(long tick, Consumer<T> onFired) {
+        while (currentTick < tick) {
+            int lowestLevel = 0;
+            while (lowestLevel <= OVERFLOW_LEVEL && levelSizes[lowestLevel] == 0) {
+                lowestLevel++;
+            }
+            if (lowestLevel > OVERFLOW_LEVEL) {
+                currentTick = tick;
+                return;
+            }
+            if (lowestLevel > 0) {
+                // Nothing happens until the clock enters the next slot of the lowest level in use
+                long slotWidth = 1L << (SLOT_BITS * Math.min(lowestLevel, LEVELS - 1));
+                long beforeNextSlot = (currentTick / slotWidth + 1) * slotWidth - 1;
+                currentTick = Math.min(tick, beforeNextSlot);
+                if (currentTick == tick) {
+                    return;
+                }
+            }
+
+            currentTick++;
+            cascade();
+            Timer<T> head = wheel[0][slotOf(currentTick, 0)];
+            while (head.next != head) {
+                Timer<T> timer = head.next;
+                unlink(timer);
+                size--;
+                onFired.accept(timer.value);
+            }
+        }
+    }
+
+    /**
+     * Moves the timers of every slot the clock has just entered down to finer levels.
+     */
+    private void cascade() {
+        if (currentTick % (1L << (SLOT_BITS * (LEVELS - 1))) == 0) {
+            reinsertAll(overflow);
+        }
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if (currentTick % (1L << (SLOT_BITS * level)) == 0) {
+                reinsertAll(wheel[level][slotOf(currentTick, level)]);
+            }
+        }
+    }
+
+    private void reinsertAll(Timer<T> head) {
+        // Detach the whole list first, as timers may go back into the same list
+        Timer<T> timer = head.next;
+        if (timer == head) {
+            return;
+        }
+        head.previous.next = null;
+        head.next = head;
+        head.previous = head;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            levelSizes[timer.level]--;
+            timer.next = timer;
+            timer.previous = timer;
+            insert(timer, currentTick);
+            timer = next;
+        }
+    }
+
+    /**
+     * Links a timer into the slot for its tick, or for the earliest tick that has not fired yet if it is overdue.
+     */
+    private void insert(Timer<T> timer, long earliestTick) {
+        long slotTick = Math.max(timer.tick, earliestTick);
+        long delay = slotTick - currentTick;
+        int level = 0;
+        while (level < LEVELS && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        Timer<T> head = level == OVERFLOW_LEVEL ? overflow : wheel[level][slotOf(slotTick, level)];
+        timer.level = level;
+        levelSizes[level]++;
+        timer.previous = head.previous;
+        timer.next = head;
+        head.previous.next = timer;
+        head.previous = timer;
+    }
+
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (SLOT_BITS * level)) & (SLOTS - 1));
+    }
+
+    private void unlink(Timer<T> timer) {
+        levelSizes[timer.level]--;
+        timer.previous.next = timer.next;
+        timer.next.previous = timer.previous;
+        timer.next = timer;
+        timer.previous = timer;
+    }
+}
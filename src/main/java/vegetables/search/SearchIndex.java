@@ -0,0 +1,409 @@
+package vegetables.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import vegetables.task.Deadline;
+import vegetables.task.Event;
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+/**
+ * Inverted index over task descriptions used by {@link SearchQuery}.
+ * <p>
+ * Every indexed task gets a document id in insertion order, and every word maps to a sorted
+ * posting list of document ids. Document ids follow the order of the task list as long as tasks are
+ * only appended, removed or replaced, so results come out in list order without sorting; the owner
+ * of the index rebuilds it when the list is reordered. Conjunctions are intersected starting from the shortest list,
+ * while OR, prefix and fuzzy matches are unioned through bitsets. Removed tasks are only
+ * marked dead and the index is compacted once dead documents outnumber live ones.
+ * </p>
+ * <p>
+ * The type and done filters have a bitset of matching documents each, so a query made only of filters
+ * or exclusions starts from the documents passing them rather than from every document. Date filters
+ * are checked on the candidates that are left.
+ * </p>
+ */
+public class SearchIndex {
+    private static final int MIN_COMPACT_SIZE = 1024;
+
+    /**
+     * A growable sorted array of document ids.
+     */
+    private static class PostingList {
+        private int[] ids = new int[4];
+        private int size;
+
+        private PostingList() {
+        }
+
+        private PostingList(int[] ids) {
+            this.ids = ids;
+            this.size = ids.length;
+        }
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] == id) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+
+    /**
+     * The documents matching one clause of a query, and how well they match it.
+     */
+    private static class ClauseMatch {
+        private final int[] ids;
+        private final double score;
+
+        private ClauseMatch(int[] ids, double score) {
+            this.ids = ids;
+            this.score = score;
+        }
+    }
+
+    private Task[] docs = new Task[64];
+    private int docCount;
+    private final BitSet live = new BitSet();
+    private int liveCount;
+    private final IdentityHashMap<Task, Integer> docIds = new IdentityHashMap<>();
+    private final TreeMap<String, PostingList> postings = new TreeMap<>();
+    private final ArrayList<ArrayList<String>> wordsByLength = new ArrayList<>();
+    // The documents of each type a query can filter by, and the done ones; removed documents are masked by live
+    private final Map<Class<? extends Task>, BitSet> typeDocs =
+            Map.of(ToDo.class, new BitSet(), Deadline.class, new BitSet(), Event.class, new BitSet());
+    private final BitSet doneDocs = new BitSet();
+
+    /**
+     * Builds an index over the given tasks.
+     *
+     * @param tasks The tasks to index, in list order.
+     */
+    public SearchIndex(List<Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Splits text into lowercase words of letters and digits.
+     *
+     * @param text The text to split.
+     * @return The words in order of appearance.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Adds a task to the index.
+     *
+     * @param task The task to add.
+     */
+    public void add(Task task) {
+        if (docCount == docs.length) {
+            docs = Arrays.copyOf(docs, docCount * 2);
+        }
+        int id = docCount++;
+        docs[id] = task;
+        docIds.put(task, id);
+        live.set(id);
+        liveCount++;
+        setAttributes(id, task);
+        for (String word : tokenize(task.getDescription())) {
+            postings.computeIfAbsent(word, this::newPostingList).add(id);
+        }
+    }
+
+    /**
+     * Replaces a task with a new version of it, e.g. a copy with another status.
+     * If the description is unchanged, the new version keeps the document id of the old one,
+     * and with it its place among the results.
+     *
+     * @param oldTask The task to replace, matched by identity.
+     * @param newTask The task replacing it.
+     */
+    public void replace(Task oldTask, Task newTask) {
+        Integer id = docIds.get(oldTask);
+        if (id == null || !oldTask.getDescription().equals(newTask.getDescription())) {
+            remove(oldTask);
+            add(newTask);
+            return;
+        }
+        docIds.remove(oldTask);
+        docIds.put(newTask, id);
+        docs[id] = newTask;
+        setAttributes(id, newTask);
+    }
+
+    private void setAttributes(int id, Task task) {
+        for (Map.Entry<Class<? extends Task>, BitSet> entry : typeDocs.entrySet()) {
+            entry.getValue().set(id, entry.getKey().isInstance(task));
+        }
+        doneDocs.set(id, task.isDone());
+    }
+
+    private PostingList newPostingList(String word) {
+        while (wordsByLength.size() <= word.length()) {
+            wordsByLength.add(new ArrayList<>());
+        }
+        wordsByLength.get(word.length()).add(word);
+        return new PostingList();
+    }
+
+    /**
+     * Removes a task from the index.
+     *
+     * @param task The task to remove, matched by identity.
+     */
+    public void remove(Task task) {
+        Integer id = docIds.remove(task);
+        if (id == null) {
+            return;
+        }
+        live.clear(id);
+        docs[id] = null;
+        liveCount--;
+        if (docCount > MIN_COMPACT_SIZE && docCount - liveCount > liveCount) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        Task[] oldDocs = docs;
+        int oldCount = docCount;
+        docs = new Task[Math.max(64, liveCount * 2)];
+        docCount = 0;
+        live.clear();
+        liveCount = 0;
+        docIds.clear();
+        postings.clear();
+        wordsByLength.clear();
+        typeDocs.values().forEach(BitSet::clear);
+        doneDocs.clear();
+        for (int i = 0; i < oldCount; i++) {
+            if (oldDocs[i] != null) {
+                add(oldDocs[i]);
+            }
+        }
+    }
+
+    /**
+     * Finds the tasks matching a query, most relevant first.
+     * <p>
+     * Each OR alternative a task matches adds to its score. An alternative scores the sum over its words
+     * of the weight of their match type, exact above prefix above fuzzy, times how rare the words they
+     * matched are among the tasks. A task matching a rare word thus ranks above one matching a common word.
+     * Ties keep insertion order.
+     * </p>
+     *
+     * @param query The parsed query.
+     * @return The matching tasks.
+     */
+    public ArrayList<Task> search(SearchQuery query) {
+        BitSet allowed = findFilteredDocs(query);
+        List<List<SearchQuery.Term>> clauses = query.getClauses();
+        if (clauses.size() == 1) {
+            // A single clause scores every match the same, so document order is already the ranking
+            ArrayList<Task> results = new ArrayList<>();
+            for (int id : evaluate(clauses.get(0), allowed).ids) {
+                if (query.matchesDates(docs[id])) {
+                    results.add(docs[id]);
+                }
+            }
+            return results;
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        for (List<SearchQuery.Term> clause : clauses) {
+            ClauseMatch match = evaluate(clause, allowed);
+            for (int id : match.ids) {
+                if (query.matchesDates(docs[id])) {
+                    scores.merge(id, match.score, Double::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? Integer.compare(a.getKey(), b.getKey())
+                : Double.compare(b.getValue(), a.getValue()));
+        ArrayList<Task> results = new ArrayList<>(ranked.size());
+        for (Map.Entry<Integer, Double> entry : ranked) {
+            results.add(docs[entry.getKey()]);
+        }
+        return results;
+    }
+
+    /**
+     * Returns the live documents passing the type and done filters of a query.
+     */
+    private BitSet findFilteredDocs(SearchQuery query) {
+        BitSet allowed = (BitSet) live.clone();
+        if (query.getTypeFilter() != null) {
+            allowed.and(typeDocs.get(query.getTypeFilter()));
+        }
+        if (Boolean.TRUE.equals(query.getDoneFilter())) {
+            allowed.and(doneDocs);
+        } else if (Boolean.FALSE.equals(query.getDoneFilter())) {
+            allowed.andNot(doneDocs);
+        }
+        return allowed;
+    }
+
+    private ClauseMatch evaluate(List<SearchQuery.Term> clause, BitSet allowed) {
+        List<PostingList> required = new ArrayList<>();
+        List<PostingList> excluded = new ArrayList<>();
+        double score = 0;
+        for (SearchQuery.Term term : clause) {
+            PostingList list = resolve(term);
+            if (term.isNegated()) {
+                excluded.add(list);
+            } else {
+                required.add(list);
+                score += term.getMatchType().getWeight() * inverseDocumentFrequency(list);
+            }
+        }
+
+        int[] candidates;
+        int count;
+        if (required.isEmpty()) {
+            candidates = allowed.stream().toArray();
+            count = candidates.length;
+        } else {
+            required.sort((a, b) -> Integer.compare(a.size, b.size));
+            PostingList shortest = required.get(0);
+            candidates = new int[shortest.size];
+            count = 0;
+            for (int i = 0; i < shortest.size; i++) {
+                if (allowed.get(shortest.ids[i])) {
+                    candidates[count++] = shortest.ids[i];
+                }
+            }
+            for (int i = 1; i < required.size() && count > 0; i++) {
+                count = retain(candidates, count, required.get(i), true);
+            }
+        }
+        for (PostingList list : excluded) {
+            count = retain(candidates, count, list, false);
+        }
+        return new ClauseMatch(Arrays.copyOf(candidates, count), score);
+    }
+
+    /**
+     * Returns how rare the documents of a posting list are, higher for rarer words.
+     */
+    private double inverseDocumentFrequency(PostingList list) {
+        return Math.log(1 + (double) liveCount / Math.max(1, list.size));
+    }
+
+    private static int retain(int[] candidates, int count, PostingList list, boolean isContained) {
+        // Few candidates are probed by binary search; many candidates against a long list go through a bitset
+        BitSet members = null;
+        if ((long) count * (32 - Integer.numberOfLeadingZeros(list.size)) > list.size) {
+            members = new BitSet();
+            for (int i = 0; i < list.size; i++) {
+                members.set(list.ids[i]);
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            boolean isMember = members == null ? list.contains(candidates[i]) : members.get(candidates[i]);
+            if (isMember == isContained) {
+                candidates[kept++] = candidates[i];
+            }
+        }
+        return kept;
+    }
+
+    private PostingList resolve(SearchQuery.Term term) {
+        String text = term.getText();
+        return switch (term.getMatchType()) {
+        case PREFIX -> union(postings.subMap(text, text + Character.MAX_VALUE).values());
+        case FUZZY -> union(findSimilarWords(text));
+        default -> postings.getOrDefault(text, new PostingList());
+        };
+    }
+
+    private List<PostingList> findSimilarWords(String text) {
+        int maxDistance = text.length() <= 4 ? 1 : 2;
+        int minLength = Math.max(1, text.length() - maxDistance);
+        int maxLength = Math.min(wordsByLength.size() - 1, text.length() + maxDistance);
+        List<PostingList> matches = new ArrayList<>();
+        for (int length = minLength; length <= maxLength; length++) {
+            for (String word : wordsByLength.get(length)) {
+                if (isWithinDistance(text, word, maxDistance)) {
+                    matches.add(postings.get(word));
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static PostingList union(Iterable<PostingList> lists) {
+        BitSet ids = new BitSet();
+        for (PostingList list : lists) {
+            for (int i = 0; i < list.size; i++) {
+                ids.set(list.ids[i]);
+            }
+        }
+        return new PostingList(ids.stream().toArray());
+    }
+
+    /**
+     * Returns whether two words are within the given Levenshtein distance,
+     * giving up as soon as every cell of a row exceeds the bound.
+     */
+    static boolean isWithinDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return false;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxDistance) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxDistance;
+    }
+}
@@ -0,0 +1,257 @@
+package vegetables.search;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Deadline;
+import vegetables.task.Event;
+import vegetables.task.RecurringDeadline;
+import vegetables.task.RecurringEvent;
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+/**
+ * A parsed {@code find} query with boolean operators, fuzzy terms and filters.
+ * <p>
+ * Words are combined with AND by default; {@code OR} separates alternatives and binds looser than AND.
+ * {@code NOT word} or {@code -word} excludes tasks containing the word, {@code ~word} also matches
+ * words within a small edit distance and {@code word*} matches words starting with the prefix.
+ * The filters {@code type:todo|deadline|event}, {@code done:yes|no}, {@code from:yyyy-MM-dd} and
+ * {@code to:yyyy-MM-dd} apply to the whole query.
+ * </p>
+ * <p>
+ * Query terms match whole words of a description, or the start of a word with {@code word*}, unlike a
+ * plain {@code find keyword}, which matches the keyword anywhere in the description. A plain keyword thus
+ * finds "seedlings" with "seed", while a query needs "seed*".
+ * </p>
+ */
+public class SearchQuery {
+    private static final Pattern FILTER = Pattern.compile("^(type|done|from|to):.+");
+
+    /**
+     * How a query term is matched against the words of a task description.
+     */
+    enum MatchType {
+        EXACT(3),
+        PREFIX(2),
+        FUZZY(1);
+
+        private final int weight;
+
+        MatchType(int weight) {
+            this.weight = weight;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+    }
+
+    /**
+     * A single word of the query.
+     */
+    static class Term {
+        private final String text;
+        private final MatchType matchType;
+        private final boolean isNegated;
+
+        Term(String text, MatchType matchType, boolean isNegated) {
+            this.text = text;
+            this.matchType = matchType;
+            this.isNegated = isNegated;
+        }
+
+        String getText() {
+            return text;
+        }
+
+        MatchType getMatchType() {
+            return matchType;
+        }
+
+        boolean isNegated() {
+            return isNegated;
+        }
+    }
+
+    private final String text;
+    private final List<List<Term>> clauses = new ArrayList<>();
+    private Class<? extends Task> typeFilter;
+    private Boolean doneFilter;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    private SearchQuery(String text) {
+        this.text = text;
+        clauses.add(new ArrayList<>());
+    }
+
+    /**
+     * Returns whether a {@code find} argument uses any operator, fuzzy term or filter.
+     * Queries without them keep the plain substring search.
+     *
+     * @param query The argument of the find command.
+     * @return true if the query needs the search engine, false for a plain keyword.
+     */
+    public static boolean isAdvanced(String query) {
+        for (String word : query.trim().split("\\s+")) {
+            if (word.equals("AND") || word.equals("OR") || word.equals("NOT")
+                    || (word.length() > 1 && (word.startsWith("-") || word.startsWith("~") || word.endsWith("*")))
+                    || FILTER.matcher(word).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a {@code find} query.
+     *
+     * @param query The argument of the find command, e.g. "water OR ~weed -done type:todo".
+     * @return The parsed query.
+     * @throws VeggieException If a filter is malformed or the query is empty.
+     */
+    public static SearchQuery parse(String query) throws VeggieException {
+        SearchQuery searchQuery = new SearchQuery(query);
+        boolean isNextNegated = false;
+        for (String word : query.trim().split("\\s+")) {
+            if (word.isEmpty() || word.equals("AND")) {
+                continue;
+            } else if (word.equals("OR")) {
+                searchQuery.clauses.add(new ArrayList<>());
+            } else if (word.equals("NOT")) {
+                isNextNegated = true;
+            } else if (FILTER.matcher(word).matches()) {
+                searchQuery.addFilter(word);
+            } else {
+                searchQuery.addTerm(word, isNextNegated);
+                isNextNegated = false;
+            }
+        }
+        searchQuery.clauses.removeIf(List::isEmpty);
+        if (searchQuery.clauses.isEmpty()) {
+            if (!searchQuery.hasFilters()) {
+                throw new VeggieException("Please provide a keyword or filter to search.");
+            }
+            // A query made only of filters matches every task that passes them
+            searchQuery.clauses.add(new ArrayList<>());
+        }
+        return searchQuery;
+    }
+
+    private void addTerm(String word, boolean isNegated) {
+        MatchType matchType = MatchType.EXACT;
+        String text = word;
+        if (text.length() > 1 && text.startsWith("-")) {
+            isNegated = true;
+            text = text.substring(1);
+        }
+        if (text.length() > 1 && text.startsWith("~")) {
+            matchType = MatchType.FUZZY;
+            text = text.substring(1);
+        } else if (text.length() > 1 && text.endsWith("*")) {
+            matchType = MatchType.PREFIX;
+            text = text.substring(0, text.length() - 1);
+        }
+
+        List<Term> clause = clauses.get(clauses.size() - 1);
+        for (String token : SearchIndex.tokenize(text)) {
+            clause.add(new Term(token, matchType, isNegated));
+        }
+    }
+
+    private void addFilter(String word) throws VeggieException {
+        int colon = word.indexOf(':');
+        String name = word.substring(0, colon);
+        String value = word.substring(colon + 1).toLowerCase();
+        try {
+            switch (name) {
+            case "type" -> typeFilter = switch (value) {
+            case "todo" -> ToDo.class;
+            case "deadline" -> Deadline.class;
+            case "event" -> Event.class;
+            default -> throw new VeggieException("Unknown task type: " + value + ". Use todo, deadline or event.");
+            };
+            case "done" -> doneFilter = switch (value) {
+            case "yes", "true" -> true;
+            case "no", "false" -> false;
+            default -> throw new VeggieException("Use done:yes or done:no.");
+            };
+            case "from" -> from = LocalDate.parse(value).atStartOfDay();
+            case "to" -> to = LocalDate.parse(value).plusDays(1).atStartOfDay();
+            default -> throw new VeggieException("Unknown filter: " + name);
+            }
+        } catch (DateTimeParseException e) {
+            throw new VeggieException("Invalid date in " + word + ". Use: yyyy-MM-dd");
+        }
+    }
+
+    private boolean hasFilters() {
+        return typeFilter != null || doneFilter != null || from != null || to != null;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    List<List<Term>> getClauses() {
+        return clauses;
+    }
+
+    Class<? extends Task> getTypeFilter() {
+        return typeFilter;
+    }
+
+    Boolean getDoneFilter() {
+        return doneFilter;
+    }
+
+    /**
+     * Returns whether a task passes the type, done and date filters of the query.
+     * Tasks without a date never pass a date filter.
+     *
+     * @param task The task to check.
+     * @return true if the task passes every filter, false otherwise.
+     */
+    public boolean matchesFilters(Task task) {
+        if (typeFilter != null && !typeFilter.isInstance(task)) {
+            return false;
+        }
+        if (doneFilter != null && task.isDone() != doneFilter) {
+            return false;
+        }
+        return matchesDates(task);
+    }
+
+    /**
+     * Returns whether a task passes the date filters of the query, ignoring its type and status.
+     * Tasks without a date never pass a date filter.
+     *
+     * @param task The task to check.
+     * @return true if the query has no date filter or the task has a date in its range, false otherwise.
+     */
+    boolean matchesDates(Task task) {
+        if (from == null && to == null) {
+            return true;
+        }
+        LocalDateTime rangeFrom = from == null ? LocalDateTime.MIN : from;
+        LocalDateTime rangeTo = to == null ? LocalDateTime.MAX : to;
+        if (task instanceof RecurringDeadline) {
+            return ((RecurringDeadline) task).occurrencesBetween(rangeFrom, rangeTo).findFirst().isPresent();
+        } else if (task instanceof RecurringEvent) {
+            return ((RecurringEvent) task).occurrencesBetween(rangeFrom, rangeTo).findFirst().isPresent();
+        } else if (task instanceof Deadline) {
+            LocalDateTime by = ((Deadline) task).getByDateTime();
+            return !by.isBefore(rangeFrom) && by.isBefore(rangeTo);
+        } else if (task instanceof Event) {
+            Event event = (Event) task;
+            return rangeFrom.isBefore(event.getToDateTime()) && rangeTo.isAfter(event.getFromDateTime());
+        }
+        return false;
+    }
+}
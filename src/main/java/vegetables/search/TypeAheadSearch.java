@@ -0,0 +1,133 @@
+package vegetables.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import vegetables.task.Task;
+
+/**
+ * Filters tasks by a keyword while it is being typed, on a background thread.
+ * <p>
+ * A search starts only once the keyword has not changed for a short while, and a search that is
+ * overtaken by a newer keyword stops early and reports nothing. Results are kept for each keyword
+ * searched, so typing another character only filters the tasks that matched before it, and deleting
+ * one goes back to the results for the shorter keyword. Matching is the same case-insensitive substring
+ * match as {@code TaskManager#findTasksBySubstring}.
+ * </p>
+ */
+public class TypeAheadSearch implements AutoCloseable {
+    // How many tasks are checked between looks at whether a newer keyword has arrived
+    private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+    private final long debounceMillis;
+    private final BiConsumer<String, List<Task>> listener;
+    private final ScheduledExecutorService executor;
+    private final AtomicLong latestRequest = new AtomicLong();
+    private ScheduledFuture<?> pendingSearch;
+
+    // Only used on the search thread
+    private long cachedVersion = -1;
+    private final ArrayDeque<Refinement> refinements = new ArrayDeque<>();
+
+    /**
+     * The tasks matching one keyword, kept to narrow down searches for longer keywords.
+     */
+    private static final class Refinement {
+        private final String keyword;
+        private final List<Task> matches;
+
+        private Refinement(String keyword, List<Task> matches) {
+            this.keyword = keyword;
+            this.matches = matches;
+        }
+    }
+
+    /**
+     * Creates a type-ahead search with its own background thread.
+     *
+     * @param debounceMillis How long the keyword must stay the same before it is searched for.
+     * @param listener Receives each keyword that was searched for and the matching tasks, in list order.
+     *     It runs on the search thread.
+     */
+    public TypeAheadSearch(long debounceMillis, BiConsumer<String, List<Task>> listener) {
+        this.debounceMillis = debounceMillis;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "type-ahead-search");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Searches for a new keyword once typing pauses, replacing any search still waiting or running.
+     *
+     * @param snapshot A snapshot of the task list that does not change, e.g. from {@code TaskManager#snapshot()}.
+     * @param version The version of the task list the snapshot was taken at; results for other versions are
+     *     not reused.
+     * @param keyword The keyword typed so far.
+     */
+    public synchronized void update(List<Task> snapshot, long version, String keyword) {
+        long request = latestRequest.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+        pendingSearch = executor.schedule(() -> search(snapshot, version, keyword, request),
+                debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops the search waiting or running, if any, without starting another.
+     */
+    public synchronized void cancel() {
+        latestRequest.incrementAndGet();
+        if (pendingSearch != null) {
+            pendingSearch.cancel(false);
+        }
+    }
+
+    private void search(List<Task> snapshot, long version, String keyword, long request) {
+        if (version != cachedVersion) {
+            refinements.clear();
+            cachedVersion = version;
+        }
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        while (!refinements.isEmpty() && !lowerKeyword.startsWith(refinements.peek().keyword)) {
+            refinements.pop();
+        }
+        List<Task> candidates = refinements.isEmpty() ? snapshot : refinements.peek().matches;
+
+        ArrayList<Task> matches = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && request != latestRequest.get()) {
+                return;
+            }
+            Task task = candidates.get(i);
+            if (task.getDescription().toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                matches.add(task);
+            }
+        }
+        if (refinements.isEmpty() || !refinements.peek().keyword.equals(lowerKeyword)) {
+            refinements.push(new Refinement(lowerKeyword, matches));
+        }
+        if (request == latestRequest.get()) {
+            listener.accept(keyword, matches);
+        }
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,201 @@
+package vegetables.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Task;
+
+/**
+ * Reads and writes the block-compressed task file format.
+ * <p>
+ * The file starts with a magic number and is followed by blocks of up to {@link #TASKS_PER_BLOCK} tasks.
+ * Each block stores its task count, its uncompressed and compressed lengths, and the newline-separated
+ * file strings of its tasks compressed with Deflate. Blocks are independent, so a reader can skip
+ * whole blocks by their lengths and only inflate the ones it needs.
+ * </p>
+ */
+final class BlockCodec {
+    /** NUL followed by "VGZ"; text task files never start with a NUL byte. */
+    static final int MAGIC = 0x0056475A;
+    static final int TASKS_PER_BLOCK = 4096;
+
+    private BlockCodec() {
+    }
+
+    /**
+     * Returns whether the file was written by {@link #write(OutputStream, List)}.
+     *
+     * @param file The task file.
+     * @return true if the file starts with the block format's magic number.
+     * @throws IOException If the file could not be read.
+     */
+    static boolean isBlockFile(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the tasks in the block format.
+     *
+     * @param out The stream to write to; it is not closed.
+     * @param tasks The tasks to write. Null tasks are skipped.
+     * @throws IOException If writing fails.
+     */
+    static void write(OutputStream out, List<Task> tasks) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        Deflater deflater = new Deflater();
+        byte[] buffer = new byte[64 * 1024];
+        try {
+            StringBuilder block = new StringBuilder();
+            int count = 0;
+            for (Task task : tasks) {
+                if (task == null) {
+                    continue;
+                }
+                block.append(task.toFileString()).append('\n');
+                if (++count == TASKS_PER_BLOCK) {
+                    buffer = writeBlock(data, deflater, block, count, buffer);
+                    block.setLength(0);
+                    count = 0;
+                }
+            }
+            if (count > 0) {
+                writeBlock(data, deflater, block, count, buffer);
+            }
+        } finally {
+            deflater.end();
+        }
+        data.flush();
+    }
+
+    private static byte[] writeBlock(DataOutputStream data, Deflater deflater, StringBuilder block, int count,
+            byte[] buffer) throws IOException {
+        byte[] raw = block.toString().getBytes(StandardCharsets.UTF_8);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            length += deflater.deflate(buffer, length, buffer.length - length);
+        }
+        data.writeInt(count);
+        data.writeInt(raw.length);
+        data.writeInt(length);
+        data.write(buffer, 0, length);
+        return buffer;
+    }
+
+    /**
+     * Reads a range of tasks from a block file, inflating only the blocks that overlap the range.
+     * Lines that cannot be parsed are reported to the warning consumer and skipped, as with the plain format.
+     *
+     * @param in The stream positioned at the start of the file; it is not closed.
+     * @param from The index of the first task to read.
+     * @param count The maximum number of tasks to read.
+     * @param tasks The list the tasks are added to.
+     * @param onWarning Receives the error of each line that cannot be parsed.
+     * @throws IOException If the stream is not a block file or is truncated.
+     */
+    static void read(InputStream in, int from, int count, List<Task> tasks, Consumer<String> onWarning)
+            throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a block-compressed task file");
+        }
+        Inflater inflater = new Inflater();
+        try {
+            int blockStart = 0;
+            long end = (long) from + count;
+            while (blockStart < end) {
+                int blockCount;
+                try {
+                    blockCount = data.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                int rawLength = data.readInt();
+                int compressedLength = data.readInt();
+                if (blockCount < 0 || rawLength < 0 || compressedLength < 0) {
+                    throw new IOException("Corrupted task block header");
+                }
+                if (blockStart + blockCount <= from) {
+                    data.skipNBytes(compressedLength);
+                } else {
+                    byte[] compressed = data.readNBytes(compressedLength);
+                    if (compressed.length != compressedLength) {
+                        throw new EOFException("Task block truncated after " + compressed.length + " of "
+                                + compressedLength + " bytes");
+                    }
+                    String block = inflate(inflater, compressed, rawLength);
+                    addTasks(block, Math.max(0, from - blockStart), (int) Math.min(blockCount, end - blockStart),
+                            tasks, onWarning);
+                }
+                blockStart += blockCount;
+            }
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String inflate(Inflater inflater, byte[] compressed, int rawLength) throws IOException {
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                length += inflater.inflate(raw, length, rawLength - length);
+                if (inflater.needsInput()) {
+                    break;
+                }
+            }
+            if (length != rawLength || !inflater.finished()) {
+                throw new IOException("Corrupted task block: inflated to " + length + " of " + rawLength + " bytes");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted task block: " + e.getMessage(), e);
+        }
+        return new String(raw, StandardCharsets.UTF_8);
+    }
+
+    private static void addTasks(String block, int first, int last, List<Task> tasks,
+            Consumer<String> onWarning) {
+        int lineStart = 0;
+        for (int i = 0; i < last; i++) {
+            int lineEnd = block.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                return;
+            }
+            if (i >= first) {
+                String line = block.substring(lineStart, lineEnd);
+                try {
+                    tasks.add(Task.fromFileString(line));
+                } catch (VeggieException e) {
+                    onWarning.accept("Error parsing task from file: " + e.getMessage());
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package vegetables.storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import vegetables.exception.VeggieException;
+
+/**
+ * Dictionary encoding for the description field of saved tasks.
+ * <p>
+ * Every distinct description gets an id in order of first appearance. The first occurrence is
+ * written out in full and later occurrences as {@code ^id} whenever that is shorter, so a description
+ * shared by many tasks is stored once. Literal descriptions starting with {@code ^} are escaped by
+ * doubling it. One dictionary encodes or decodes a single file, from its first line to its last.
+ * </p>
+ * <p>
+ * Only files saved in {@link StorageFormat#DICTIONARY} are encoded, since a reference no longer
+ * means the same task once the line it refers to is edited by hand.
+ * </p>
+ */
+class DescriptionDictionary {
+    /** First line of files written with dictionary encoding; files without it hold literal descriptions. */
+    static final String HEADER = "# descriptions: dictionary";
+
+    private static final char REFERENCE = '^';
+    private static final String SEPARATOR = " | ";
+
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final ArrayList<String> descriptions = new ArrayList<>();
+
+    /**
+     * Replaces the description in a task's file string with its encoded form.
+     *
+     * @param fileString The file string of the task.
+     * @param description The description of the task, as contained in the file string.
+     * @return The line to write.
+     */
+    String encode(String fileString, String description) {
+        int start = descriptionStart(fileString);
+        assert fileString.startsWith(description, start) : "File string should contain the description";
+
+        String literal = description.charAt(0) == REFERENCE ? REFERENCE + description : description;
+        String encoded = literal;
+        Integer id = ids.putIfAbsent(description, ids.size());
+        if (id != null) {
+            String reference = REFERENCE + Integer.toString(id);
+            encoded = reference.length() < literal.length() ? reference : literal;
+        }
+        return fileString.substring(0, start) + encoded + fileString.substring(start + description.length());
+    }
+
+    /**
+     * Restores the literal description in a line written by {@link #encode(String, String)}.
+     *
+     * @param line The line read from the file.
+     * @return The line with its description in full, ready for {@code Task#fromFileString}.
+     * @throws VeggieException If the line refers to a description that has not been defined.
+     */
+    String decode(String line) throws VeggieException {
+        int start = descriptionStart(line);
+        if (start < 0 || start >= line.length()) {
+            return line;
+        }
+        int end = line.indexOf(SEPARATOR, start);
+        if (end < 0) {
+            end = line.length();
+        }
+        String field = line.substring(start, end);
+
+        if (field.length() > 1 && field.charAt(0) == REFERENCE && isDigits(field, 1)) {
+            long id = Long.parseLong(field.substring(1), 10);
+            if (field.length() > 19 || id >= descriptions.size()) {
+                throw new VeggieException("Unknown description reference: " + field);
+            }
+            return line.substring(0, start) + descriptions.get((int) id) + line.substring(end);
+        }
+
+        boolean isEscaped = field.length() > 1 && field.charAt(0) == REFERENCE && field.charAt(1) == REFERENCE;
+        String description = isEscaped ? field.substring(1) : field;
+        if (ids.putIfAbsent(description, descriptions.size()) == null) {
+            descriptions.add(description);
+        }
+        return isEscaped ? line.substring(0, start) + description + line.substring(end) : line;
+    }
+
+    private static int descriptionStart(String line) {
+        int first = line.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : line.indexOf(SEPARATOR, first + SEPARATOR.length());
+        return second < 0 ? -1 : second + SEPARATOR.length();
+    }
+
+    private static boolean isDigits(String text, int from) {
+        for (int i = from; i < text.length(); i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
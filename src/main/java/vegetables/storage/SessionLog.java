@@ -0,0 +1,179 @@
+package vegetables.storage;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps every message of a conversation in a file so that only the recent ones need to stay in memory.
+ * <p>
+ * Messages are written as soon as they are added and read back by their position in the conversation.
+ * Only the offset of each message is held in memory, so the log stays small however long the session runs.
+ * Each record is a one-byte speaker flag, the length of the text, the offset of the record it continues
+ * (or -1) and the text in UTF-8. A message written in parts is a chain of records, one per part, so each
+ * part is written once however long the message grows, and only the offset of its last record is kept.
+ * </p>
+ */
+public class SessionLog implements AutoCloseable {
+    private static final int HEADER_LENGTH = 13;
+
+    private final Path path;
+    private final RandomAccessFile file;
+    private long[] offsets = new long[256];
+    private int size;
+
+    /**
+     * Represents one message read back from the log.
+     */
+    public static final class Entry {
+        private final boolean isUser;
+        private final String text;
+
+        private Entry(boolean isUser, String text) {
+            this.isUser = isUser;
+            this.text = text;
+        }
+
+        public boolean isUser() {
+            return isUser;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+
+    /**
+     * Creates an empty log in the given file, replacing anything already in it.
+     *
+     * @param path The file to keep the log in.
+     * @throws IOException If the file cannot be opened.
+     */
+    public SessionLog(Path path) throws IOException {
+        this.path = path;
+        this.file = new RandomAccessFile(path.toFile(), "rw");
+        file.setLength(0);
+    }
+
+    /**
+     * Creates an empty log in a temporary file that is removed when the log is closed or the program exits.
+     *
+     * @return The new log.
+     * @throws IOException If the file cannot be created.
+     */
+    public static SessionLog createTemporary() throws IOException {
+        Path path = Files.createTempFile("vegetables-session-", ".log");
+        path.toFile().deleteOnExit();
+        return new SessionLog(path);
+    }
+
+    /**
+     * Adds a message to the end of the conversation.
+     *
+     * @param isUser Whether the user sent the message.
+     * @param text The text of the message.
+     * @return The position of the message in the conversation, starting from 0.
+     * @throws IOException If the message cannot be written.
+     */
+    public synchronized int append(boolean isUser, String text) throws IOException {
+        long offset = writeRecord(isUser, text, -1);
+        if (size == offsets.length) {
+            offsets = Arrays.copyOf(offsets, size * 2);
+        }
+        offsets[size] = offset;
+        return size++;
+    }
+
+    /**
+     * Adds text to the end of a message, e.g. the next part of a response shown piece by piece.
+     * Only the added text is written, and the message is read back whole.
+     *
+     * @param index The position of the message in the conversation.
+     * @param text The text to add.
+     * @throws IOException If the text cannot be written.
+     */
+    public synchronized void extend(int index, String text) throws IOException {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("No message " + index + " in " + size);
+        }
+        file.seek(offsets[index]);
+        boolean isUser = file.readByte() == 1;
+        offsets[index] = writeRecord(isUser, text, offsets[index]);
+    }
+
+    private long writeRecord(boolean isUser, String text, long previous) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer record = ByteBuffer.allocate(HEADER_LENGTH + bytes.length);
+        record.put((byte) (isUser ? 1 : 0)).putInt(bytes.length).putLong(previous).put(bytes);
+
+        long offset = file.length();
+        file.seek(offset);
+        file.write(record.array());
+        return offset;
+    }
+
+    /**
+     * Reads back the messages between two positions in the conversation.
+     *
+     * @param from The position of the first message to read, inclusive.
+     * @param to The position after the last message to read.
+     * @return The messages, in the order they were added.
+     * @throws IOException If the messages cannot be read.
+     */
+    public synchronized List<Entry> read(int from, int to) throws IOException {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("No messages from " + from + " to " + to + " in " + size);
+        }
+        List<Entry> entries = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            entries.add(readEntry(offsets[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the message whose last record is at the given offset, following the chain back to its first part.
+     */
+    private Entry readEntry(long offset) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        ArrayDeque<byte[]> parts = new ArrayDeque<>();
+        boolean isUser = false;
+        int length = 0;
+        while (offset >= 0) {
+            file.seek(offset);
+            file.readFully(header);
+            ByteBuffer headerBuffer = ByteBuffer.wrap(header);
+            isUser = headerBuffer.get() == 1;
+            byte[] part = new byte[headerBuffer.getInt()];
+            offset = headerBuffer.getLong();
+            file.readFully(part);
+            parts.push(part);
+            length += part.length;
+        }
+        ByteBuffer text = ByteBuffer.allocate(length);
+        parts.forEach(text::put);
+        return new Entry(isUser, new String(text.array(), StandardCharsets.UTF_8));
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Closes the log and deletes its file.
+     *
+     * @throws IOException If the file cannot be closed or deleted.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        file.close();
+        Files.deleteIfExists(path);
+    }
+}
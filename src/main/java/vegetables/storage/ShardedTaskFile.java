@@ -0,0 +1,264 @@
+package vegetables.storage;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+import vegetables.task.Task;
+
+/**
+ * Stores the task list as a directory of shard files, each holding a fixed-size range of task positions.
+ * <p>
+ * A manifest lists the shard files and their task counts. On save, a shard is only rewritten if its tasks
+ * differ from the ones it was last saved or loaded with; since tasks are replaced rather than changed
+ * in place, comparing them by identity is enough. Shards hold positions rather than particular tasks:
+ * adding or changing a task rewrites one shard, but deleting or inserting one moves every later task
+ * to a new position, so the shards from its position onwards are all rewritten. Shards are read and
+ * written in parallel.
+ * </p>
+ * <p>
+ * A rewritten shard goes to a new file named after the save, and the manifest is replaced by renaming
+ * a complete copy over it, so the files listed by the manifest are never changed. A save interrupted
+ * at any point leaves the previous save readable; files it left behind are removed by the next save.
+ * </p>
+ */
+class ShardedTaskFile {
+    private static final String MANIFEST = "shards.txt";
+    private static final Pattern SHARD_FILE_NAME = Pattern.compile("shard-\\d+(?:-(\\d+))?\\.txt");
+
+    private final File directory;
+    private final int shardSize;
+    private final TaskStorage storage;
+    private Task[][] savedShards = new Task[0][];
+    private String[] savedFileNames = new String[0];
+    private long generation = -1;
+
+    /**
+     * The shard files listed in a manifest, with the number of tasks in each.
+     */
+    private static final class Manifest {
+        private final List<String> fileNames = new ArrayList<>();
+        private final List<Integer> counts = new ArrayList<>();
+    }
+
+    /**
+     * Constructs a sharded task file.
+     *
+     * @param directory The directory holding the manifest and shard files.
+     * @param shardSize The number of tasks per shard.
+     * @param storage The storage whose format is used for each shard file.
+     */
+    ShardedTaskFile(File directory, int shardSize, TaskStorage storage) {
+        assert shardSize > 0 : "Shard size should be positive";
+        this.directory = directory;
+        this.shardSize = shardSize;
+        this.storage = storage;
+    }
+
+    boolean exists() {
+        return getManifestFile().exists();
+    }
+
+    File getManifestFile() {
+        return new File(directory, MANIFEST);
+    }
+
+    /**
+     * Returns the total size of the manifest and the shard files.
+     *
+     * @return The size in bytes.
+     */
+    long length() {
+        File[] files = directory.listFiles();
+        long length = 0;
+        for (File file : files == null ? new File[0] : files) {
+            length += file.length();
+        }
+        return length;
+    }
+
+    /**
+     * Saves the tasks, rewriting only the shards whose tasks changed since they were last saved or loaded.
+     *
+     * @param tasks The full task list.
+     * @return The number of shard files written.
+     * @throws IOException If a shard or the manifest could not be written.
+     */
+    synchronized int save(List<Task> tasks) throws IOException {
+        directory.mkdirs();
+        if (generation < 0) {
+            generation = findLatestGeneration();
+        }
+        generation++;
+        int shardCount = (tasks.size() + shardSize - 1) / shardSize;
+        Task[][] shards = new Task[shardCount][];
+        String[] fileNames = new String[shardCount];
+        List<Integer> changed = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            List<Task> shard = tasks.subList(i * shardSize, Math.min(tasks.size(), (i + 1) * shardSize));
+            if (i < savedShards.length && isSame(savedShards[i], shard)) {
+                shards[i] = savedShards[i];
+                fileNames[i] = savedFileNames[i];
+            } else {
+                shards[i] = shard.toArray(new Task[0]);
+                fileNames[i] = String.format("shard-%05d-%d.txt", i, generation);
+                changed.add(i);
+            }
+        }
+
+        // Changed shards go to new files, leaving the ones listed by the current manifest as they are
+        try {
+            changed.parallelStream().forEach(i -> {
+                try {
+                    storage.writeTaskFile(new File(directory, fileNames[i]), List.of(shards[i]));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        File newManifest = new File(directory, MANIFEST + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(newManifest))) {
+            for (int i = 0; i < shardCount; i++) {
+                writer.write(fileNames[i] + " " + shards[i].length);
+                writer.newLine();
+            }
+        }
+        Files.move(newManifest.toPath(), getManifestFile().toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        savedShards = shards;
+        savedFileNames = fileNames;
+        deleteUnlistedShards(Set.of(fileNames));
+        return changed.size();
+    }
+
+    /**
+     * Returns the highest save number used by a shard file in the directory, so that new files never replace them.
+     */
+    private long findLatestGeneration() {
+        long latest = 0;
+        for (File file : listShardFiles()) {
+            Matcher matcher = SHARD_FILE_NAME.matcher(file.getName());
+            if (matcher.matches() && matcher.group(1) != null) {
+                latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+            }
+        }
+        return latest;
+    }
+
+    private void deleteUnlistedShards(Set<String> listed) {
+        for (File file : listShardFiles()) {
+            if (!listed.contains(file.getName())) {
+                file.delete();
+            }
+        }
+    }
+
+    private List<File> listShardFiles() {
+        File[] files = directory.listFiles();
+        List<File> shardFiles = new ArrayList<>();
+        for (File file : files == null ? new File[0] : files) {
+            if (SHARD_FILE_NAME.matcher(file.getName()).matches()) {
+                shardFiles.add(file);
+            }
+        }
+        return shardFiles;
+    }
+
+    private static boolean isSame(Task[] saved, List<Task> shard) {
+        if (saved.length != shard.size()) {
+            return false;
+        }
+        for (int i = 0; i < saved.length; i++) {
+            if (saved[i] != shard.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Loads a range of tasks, reading only the shards that overlap it.
+     *
+     * @param from The index of the first task to load.
+     * @param count The maximum number of tasks to load.
+     * @return The tasks in the range.
+     * @throws IOException If the manifest or a shard could not be read.
+     */
+    synchronized ArrayList<Task> load(int from, int count) throws IOException {
+        Manifest manifest = readManifest();
+        List<Integer> counts = manifest.counts;
+        long end = (long) from + count;
+        int[] starts = new int[counts.size() + 1];
+        for (int i = 0; i < counts.size(); i++) {
+            starts[i + 1] = starts[i] + counts.get(i);
+        }
+
+        List<ArrayList<Task>> shards;
+        try {
+            shards = IntStream.range(0, counts.size()).parallel().mapToObj(i -> {
+                ArrayList<Task> shard = new ArrayList<>();
+                if (starts[i + 1] > from && starts[i] < end) {
+                    try {
+                        storage.readTaskFile(new File(directory, manifest.fileNames.get(i)), 0, Integer.MAX_VALUE,
+                                shard);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                return shard;
+            }).toList();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        boolean isComplete = true;
+        for (int i = 0; i < shards.size(); i++) {
+            ArrayList<Task> shard = shards.get(i);
+            isComplete &= shard.size() == counts.get(i);
+            int first = Math.max(0, from - starts[i]);
+            int last = (int) Math.min(shard.size(), end - starts[i]);
+            if (first < last) {
+                tasks.addAll(shard.subList(first, last));
+            }
+        }
+        if (from == 0 && end >= starts[counts.size()] && isComplete) {
+            // The next save only needs to rewrite shards that change after this load
+            savedShards = shards.stream().map(shard -> shard.toArray(new Task[0])).toArray(Task[][]::new);
+            savedFileNames = manifest.fileNames.toArray(new String[0]);
+        }
+        return tasks;
+    }
+
+    private Manifest readManifest() throws IOException {
+        Manifest manifest = new Manifest();
+        try (BufferedReader reader = new BufferedReader(new FileReader(getManifestFile()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    int space = line.lastIndexOf(' ');
+                    manifest.fileNames.add(line.substring(0, space));
+                    manifest.counts.add(Integer.parseInt(line.substring(space + 1)));
+                }
+            }
+        } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+            throw new IOException("Corrupted shard manifest: " + e.getMessage(), e);
+        }
+        return manifest;
+    }
+}
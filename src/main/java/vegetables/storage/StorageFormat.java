@@ -0,0 +1,30 @@
+package vegetables.storage;
+
+/**
+ * The on-disk formats TaskStorage can save the task list in.
+ * Loading detects the format of the file, so switching formats never strands saved tasks.
+ */
+public enum StorageFormat {
+    /** One line of text per task, written in full so that the file can be read and edited by hand. */
+    PLAIN,
+    /**
+     * One line of text per task, with repeated descriptions written as references to their first use.
+     * Smaller when many tasks share a description, but a reference breaks if the line it refers to is edited.
+     */
+    DICTIONARY,
+    /** Blocks of tasks, each compressed on its own so that a range of tasks can be read without the rest. */
+    COMPRESSED;
+
+    /**
+     * Returns the format named by the {@code vegetables.storage.format} system property, defaulting to plain text.
+     *
+     * @return The configured storage format.
+     */
+    public static StorageFormat fromSystemProperty() {
+        String name = System.getProperty("vegetables.storage.format", "plain");
+        if (name.equalsIgnoreCase("compressed")) {
+            return COMPRESSED;
+        }
+        return name.equalsIgnoreCase("dictionary") ? DICTIONARY : PLAIN;
+    }
+}
@@ -0,0 +1,97 @@
+package vegetables.storage;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import vegetables.task.Task;
+
+/**
+ * Watches the task file for changes made by other programs and reloads it.
+ * <p>
+ * Runs on its own daemon thread. Bursts of file events are coalesced, writes made by the
+ * {@link TaskStorage} being watched are ignored, and the reloaded tasks are handed to a listener,
+ * which must pass them to the thread that owns the task list.
+ * </p>
+ */
+public class TaskFileWatcher implements AutoCloseable {
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final TaskStorage taskStorage;
+    private final Path watchedFile;
+    private final Consumer<ArrayList<Task>> listener;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    TaskFileWatcher(TaskStorage taskStorage, Path watchedFile, Consumer<ArrayList<Task>> listener)
+            throws IOException {
+        this.taskStorage = taskStorage;
+        this.watchedFile = watchedFile.toAbsolutePath().normalize();
+        this.listener = listener;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.watchedFile.getParent().toFile().mkdirs();
+        this.watchedFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::run, "task-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean isTaskFileChanged = containsTaskFile(key);
+                key.reset();
+                if (!isTaskFileChanged) {
+                    continue;
+                }
+
+                // Editors and other tools often write a file in several steps; wait for them to finish
+                WatchKey next;
+                while ((next = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    containsTaskFile(next);
+                    next.reset();
+                }
+                ArrayList<Task> tasks = taskStorage.loadExternalChanges();
+                if (tasks != null) {
+                    listener.accept(tasks);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher was closed
+        }
+    }
+
+    private boolean containsTaskFile(WatchKey key) {
+        boolean isTaskFile = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (context instanceof Path && watchedFile.getFileName().equals(context)) {
+                isTaskFile = true;
+            }
+        }
+        return isTaskFile;
+    }
+
+    /**
+     * Stops watching the task file.
+     */
+    @Override
+    public void close() {
+        thread.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            taskStorage.addWarning("Error closing the task file watcher: " + e.getMessage());
+        }
+    }
+}
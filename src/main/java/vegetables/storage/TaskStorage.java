@@ -1,63 +1,551 @@
 package vegetables.storage;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import vegetables.exception.VeggieException;
+import vegetables.jfr.TaskLoadEvent;
+import vegetables.jfr.TaskSaveEvent;
 import vegetables.task.Task;
 
 /**
  * The TaskStorage class is responsible for saving and loading tasks to and from a file.
  * It ensures that tasks are persisted across program executions and handles file I/O operations.
  * If the file or necessary directories don't exist, it will create them.
+ * <p>
+ * The task list is saved as plain text, dictionary-encoded text or block-compressed, see {@link StorageFormat}.
+ * Loading detects the format of the file, so any format can be read whichever one is configured.
+ * </p>
+ * <p>
+ * Archived tasks are kept in a separate, GZIP-compressed file that is only ever appended to.
+ * They are not loaded with the task list and are read only when the archive is queried.
+ * </p>
+ * <p>
+ * While the task file is watched, a save never writes over changes another program made to it that have
+ * not been applied to the tasks being saved. Under the same lock as the write, the contents of the file
+ * are checked against those last written or applied, and a save that would overwrite an edit is refused.
+ * </p>
  */
 public class TaskStorage {
-    private static final String FILE_PATH = "./SHOPPING/list.txt";
+    private static final String DEFAULT_DIRECTORY = "./SHOPPING";
+    private static final String DEFAULT_LIST_NAME = "list";
+    private static final String DEFAULT_ARCHIVE_NAME = "archive.gz";
+    private static final String RECOVERY_DIRECTORY = "recovery";
+
+    private static final int READ_BUFFER_SIZE = 64 * 1024;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+    private static final String SAVED_MESSAGE = "Tasks have been successfully saved to the file.";
+    /** The error of a save refused because it would overwrite changes made to the file by another program. */
+    public static final String EXTERNAL_CHANGE_MESSAGE = "Not saved: another program changed the task file, "
+            + "and saving would have overwritten its changes. The file is reloaded instead, "
+            + "so make your latest change again once it is.";
+
+    private final String filePath;
+    private final String archivePath;
+    private final StorageFormat format;
+    private final ShardedTaskFile shards;
+    private ExecutorService saveExecutor;
+    private final List<TaskFileWatcher> watchers = new ArrayList<>();
+    private final AtomicReference<QueuedSave> latestSave = new AtomicReference<>();
+    private final AtomicBoolean isLatestSaveQueued = new AtomicBoolean();
+    private final AtomicReference<String> backgroundSaveError = new AtomicReference<>();
+    // Problems that did not stop a load or save, kept for the frontend to show with its other output
+    private final ConcurrentLinkedQueue<String> warnings = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this: the contents of the watched file as last written or applied, and a reload not yet applied
+    private String knownFingerprint;
+    private List<Task> pendingReload;
+    private String pendingFingerprint;
+    // Counts applied reloads; a save of tasks taken before the latest one would undo it
+    private volatile long appliedReloadCount;
+
+    /**
+     * A snapshot waiting to be saved, with the number of reloads applied when it was taken.
+     */
+    private static final class QueuedSave {
+        private final List<Task> tasks;
+        private final long reloadCount;
+
+        private QueuedSave(List<Task> tasks, long reloadCount) {
+            this.tasks = tasks;
+            this.reloadCount = reloadCount;
+        }
+    }
+
+    /**
+     * Constructs a TaskStorage configured by the {@code vegetables.storage.dir}, {@code vegetables.storage.format}
+     * and {@code vegetables.storage.shardSize} system properties, saving to a single plain text file in
+     * ./SHOPPING by default.
+     */
+    public TaskStorage() {
+        this(StorageFormat.fromSystemProperty(), Integer.getInteger("vegetables.storage.shardSize", 0));
+    }
+
+    /**
+     * Constructs a TaskStorage that saves the task list to a single file in the given format.
+     *
+     * @param format The format to save the task list in.
+     */
+    public TaskStorage(StorageFormat format) {
+        this(format, 0);
+    }
+
+    /**
+     * Constructs a TaskStorage that saves the task list in the given format, optionally split into shard files.
+     * <p>
+     * With a positive shard size, the tasks are stored in a directory next to the task file, one file per
+     * range of {@code shardSize} positions, and a save only rewrites the shards whose tasks changed.
+     * If that directory does not exist yet, the single task file is loaded instead.
+     * </p>
+     *
+     * @param format The format of each file.
+     * @param shardSize The number of tasks per shard, or 0 to keep all tasks in a single file.
+     */
+    public TaskStorage(StorageFormat format, int shardSize) {
+        this(new File(System.getProperty("vegetables.storage.dir", DEFAULT_DIRECTORY)), DEFAULT_LIST_NAME,
+                format, shardSize);
+    }
+
+    /**
+     * Constructs a TaskStorage for a named task list in the given directory.
+     * <p>
+     * The list is saved to {@code [name].txt} and archived to {@code [name]-archive.gz}, except for the
+     * default list "list", whose archive stays in {@code archive.gz}.
+     * </p>
+     *
+     * @param directory The directory holding the task files.
+     * @param listName The name of the task list, used in its file names.
+     * @param format The format of each file.
+     * @param shardSize The number of tasks per shard, or 0 to keep all tasks in a single file.
+     */
+    public TaskStorage(File directory, String listName, StorageFormat format, int shardSize) {
+        assert shardSize >= 0 : "Shard size should not be negative";
+        this.filePath = new File(directory, listName + ".txt").getPath();
+        this.archivePath = new File(directory, listName.equals(DEFAULT_LIST_NAME)
+                ? DEFAULT_ARCHIVE_NAME
+                : listName + "-archive.gz").getPath();
+        this.format = format;
+        this.shards = shardSize > 0 ? new ShardedTaskFile(shardDirectory(filePath), shardSize, this) : null;
+    }
+
+    /**
+     * Returns a storage to keep the tasks in while the task file cannot be loaded, so that the task file
+     * is left as it is. It saves to a {@code recovery} directory next to the task file, in the same format,
+     * and is the same every time, so that the tasks saved there are found again on the next start.
+     *
+     * @return The storage of the recovery copy.
+     */
+    public TaskStorage createRecoveryStorage() {
+        File file = new File(filePath);
+        String name = file.getName();
+        return new TaskStorage(new File(file.getParentFile(), RECOVERY_DIRECTORY),
+                name.substring(0, name.length() - ".txt".length()), format, 0);
+    }
+
+    /**
+     * Returns the path of the file the task list is saved to, e.g. to tell the user where to find it.
+     *
+     * @return The path of the task file.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns whether the task list has been saved before.
+     *
+     * @return true if the task file exists, false otherwise.
+     */
+    public boolean hasSavedTasks() {
+        return new File(filePath).exists() || shards != null && shards.exists();
+    }
+
+    private static File shardDirectory(String filePath) {
+        File file = new File(filePath);
+        String name = file.getName();
+        int dot = name.lastIndexOf('.');
+        return new File(file.getParentFile(), (dot > 0 ? name.substring(0, dot) : name) + ".shards");
+    }
 
     /**
      * Saves the given list of tasks to a file. If the required directories do not exist,
      * they will be created automatically. If the file already exists, it will be overwritten
      * with the current list of tasks.
      * <p>
-     * Each task is written to the file using its {@link Task#toFileString()} method.
-     * If a null task is encountered, a warning message is printed to the console.
+     * Each task is written to the file using its {@link Task#toFileString()} method, in the configured
+     * {@link StorageFormat}. If a null task is encountered, a warning message is printed to the console.
      * </p>
      *
      * @param tasks The list of tasks to be saved to the file. Each task must implement
      *             the {@link Task#toFileString()} method to ensure correct formatting.
      * @return A message indicating whether the tasks were successfully saved or if an error occurred.
      */
-    public String saveTasks(ArrayList<Task> tasks) {
-        File file = new File(FILE_PATH);
+    public synchronized String saveTasks(List<Task> tasks) {
+        return saveTasks(tasks, appliedReloadCount);
+    }
+
+    private synchronized String saveTasks(List<Task> tasks, long reloadCount) {
+        try {
+            persistTasks(tasks, reloadCount);
+        } catch (VeggieException e) {
+            return e.getMessage();
+        }
+        return SAVED_MESSAGE;
+    }
+
+    /**
+     * Returns whether a message returned by {@link #saveTasks(List)} reports a successful save.
+     *
+     * @param message The message returned by the save.
+     * @return true if the tasks were saved.
+     */
+    public static boolean isSaved(String message) {
+        return SAVED_MESSAGE.equals(message);
+    }
+
+    /**
+     * Saves the given list of tasks like {@link #saveTasks(List)}, but reports a failure as an exception
+     * so that callers can keep the tasks in memory until they are safely on disk.
+     *
+     * @param tasks The list of tasks to be saved.
+     * @throws VeggieException If the tasks could not be written, or would overwrite changes made by another program.
+     */
+    public synchronized void persistTasks(List<Task> tasks) throws VeggieException {
+        persistTasks(tasks, appliedReloadCount);
+    }
+
+    private synchronized void persistTasks(List<Task> tasks, long reloadCount) throws VeggieException {
+        checkForExternalChanges(reloadCount);
+        TaskSaveEvent event = new TaskSaveEvent();
+        event.begin();
+        File file = new File(filePath);
 
         // Ensure the directory exists
         createParentDirectories(file);
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-            writeTasksToFile(writer, tasks);
+        boolean isSaved = false;
+        try {
+            if (shards != null) {
+                shards.save(tasks);
+            } else {
+                writeTaskFile(file, tasks);
+            }
+            knownFingerprint = fingerprint(watchedFile());
+            isSaved = true;
         } catch (IOException e) {
-            return handleSaveError(e);
+            throw new VeggieException(handleSaveError(e));
+        } finally {
+            // Failed saves are recorded too, so that a recording shows what they cost before failing
+            event.end();
+            if (event.shouldCommit()) {
+                event.setPath(filePath);
+                event.setTaskCount(tasks.size());
+                event.setBytes(shards != null ? shards.length() : file.length());
+                event.setSuccessful(isSaved);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Refuses a save of tasks that do not include the latest changes another program made to the watched file.
+     */
+    private void checkForExternalChanges(long reloadCount) throws VeggieException {
+        boolean isOutdated = reloadCount != appliedReloadCount || pendingReload != null;
+        if (!isOutdated && knownFingerprint != null && isWatching()) {
+            File file = watchedFile();
+            // A deleted file holds nothing to lose
+            isOutdated = file.exists() && !fingerprint(file).equals(knownFingerprint);
+        }
+        if (isOutdated) {
+            throw new VeggieException(EXTERNAL_CHANGE_MESSAGE);
+        }
+    }
+
+    private boolean isWatching() {
+        synchronized (watchers) {
+            return !watchers.isEmpty();
+        }
+    }
+
+    /**
+     * Starts watching the task file for changes made by other programs.
+     * <p>
+     * After another program changes the file, the tasks are reloaded on the watcher's thread and passed
+     * to the listener, e.g. to apply them with {@code TaskManager#reconcile}. Saves made through this
+     * TaskStorage are not reported. Once the reloaded tasks are applied, the owner of the task list must call
+     * {@link #markApplied(List)}; until then, saves are refused so that they cannot write over the change.
+     * </p>
+     *
+     * @param listener Receives the reloaded task list; it runs on the watcher's thread.
+     * @return The watcher, to be closed when the changes are no longer wanted.
+     * @throws IOException If the file system cannot watch the task file's directory.
+     */
+    public TaskFileWatcher watch(Consumer<ArrayList<Task>> listener) throws IOException {
+        TaskFileWatcher watcher = new TaskFileWatcher(this, watchedFile().toPath(), listener);
+        synchronized (watchers) {
+            watchers.add(watcher);
         }
+        return watcher;
+    }
 
-        return "Tasks have been successfully saved to the file.";
+    /**
+     * Finishes the saves still queued by {@link #saveTasksAsync(List)} and stops watching the task file.
+     * <p>
+     * Waits at most a few seconds for the queued saves. Tasks can still be saved and loaded directly
+     * afterwards, but no more saves can be queued.
+     * </p>
+     *
+     * @return true if no queued save is still running, false if it gave up waiting for them.
+     */
+    public boolean shutdown() {
+        boolean isStopped = true;
+        ExecutorService executor;
+        synchronized (this) {
+            executor = saveExecutor;
+        }
+        if (executor != null) {
+            // Not holding the lock: the queued saves need it to write
+            executor.shutdown();
+            try {
+                isStopped = executor.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (!isStopped) {
+                    warnings.add("Gave up waiting for tasks to finish saving.");
+                }
+            } catch (InterruptedException e) {
+                isStopped = false;
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (watchers) {
+            watchers.forEach(TaskFileWatcher::close);
+            watchers.clear();
+        }
+        return isStopped;
+    }
+
+    /**
+     * Reloads the task list if the file differs from what this TaskStorage last wrote, applied or reloaded.
+     *
+     * @return The reloaded tasks, or null if the file has not changed.
+     */
+    synchronized ArrayList<Task> loadExternalChanges() {
+        String fingerprint = fingerprint(watchedFile());
+        String expected = pendingReload != null ? pendingFingerprint : knownFingerprint;
+        if (fingerprint.equals(expected)) {
+            return null;
+        }
+        ArrayList<Task> tasks = loadTasks(0, Integer.MAX_VALUE);
+        pendingReload = tasks;
+        pendingFingerprint = fingerprint;
+        return tasks;
+    }
+
+    /**
+     * Records that tasks passed to a watcher's listener have been applied to the task list, so that saves can
+     * write the file again. Tasks from an older reload, overtaken by a newer one, are ignored.
+     *
+     * @param reloaded The reloaded tasks, as passed to the listener.
+     */
+    public synchronized void markApplied(List<Task> reloaded) {
+        if (reloaded != pendingReload) {
+            return;
+        }
+        knownFingerprint = pendingFingerprint;
+        pendingReload = null;
+        pendingFingerprint = null;
+        appliedReloadCount++;
+        // A snapshot still queued was taken before the reload and would write over it
+        latestSave.set(null);
+    }
+
+    private File watchedFile() {
+        // A sharded list is rewritten shard by shard, and its manifest is always written last
+        return shards != null ? shards.getManifestFile() : new File(filePath);
+    }
+
+    /**
+     * Returns a checksum of the file's contents, so that an edit is seen whatever its size or timestamp.
+     */
+    private static String fingerprint(File file) {
+        if (!file.exists()) {
+            return "";
+        }
+        CRC32C checksum = new CRC32C();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                checksum.update(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            // An unreadable file never matches, so it is reloaded rather than written over
+            return "unreadable";
+        }
+        return file.length() + ":" + Long.toHexString(checksum.getValue());
+    }
+
+    /**
+     * Writes the tasks to a file in the configured format, replacing its contents.
+     */
+    void writeTaskFile(File file, List<Task> tasks) throws IOException {
+        if (format == StorageFormat.COMPRESSED) {
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+                BlockCodec.write(out, tasks);
+            }
+        } else if (format == StorageFormat.DICTIONARY) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+                writer.write(DescriptionDictionary.HEADER);
+                writer.newLine();
+                writeTasksToFile(writer, tasks, new DescriptionDictionary());
+            }
+        } else {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+                writeTasksToFile(writer, tasks, null);
+            }
+        }
+    }
+
+    /**
+     * Saves a snapshot of the task list on a background thread.
+     * <p>
+     * The snapshot must not change while it is being written, e.g. one obtained from
+     * {@code TaskManager#snapshot()}, so that new commands can keep changing the task list
+     * while the save is in progress. Saves are written one at a time in submission order.
+     * </p>
+     *
+     * @param snapshot The immutable list of tasks to be saved.
+     * @return A future completed with the result message of {@link #saveTasks(List)}.
+     */
+    public CompletableFuture<String> saveTasksAsync(List<Task> snapshot) {
+        long reloadCount = appliedReloadCount;
+        return CompletableFuture.supplyAsync(() -> saveTasks(snapshot, reloadCount), getSaveExecutor());
+    }
+
+    /**
+     * Saves a snapshot of the task list on a background thread, skipping it if a newer one arrives first.
+     * <p>
+     * Meant for a stream of changes where only the final state matters: however quickly snapshots arrive,
+     * at most one save is waiting at a time and it writes the most recent snapshot. Like
+     * {@link #saveTasksAsync(List)}, the snapshot must not change while it is being written. A failure is
+     * not printed from the save thread, where it would land in the middle of a frontend's output, but kept
+     * for {@link #takeBackgroundSaveError()}.
+     * </p>
+     *
+     * @param snapshot The immutable list of tasks to be saved.
+     */
+    public void saveLatestAsync(List<Task> snapshot) {
+        latestSave.set(new QueuedSave(snapshot, appliedReloadCount));
+        if (isLatestSaveQueued.compareAndSet(false, true)) {
+            getSaveExecutor().execute(() -> {
+                // Cleared first so that a snapshot arriving during the write queues another save
+                isLatestSaveQueued.set(false);
+                QueuedSave save = latestSave.getAndSet(null);
+                if (save != null) {
+                    try {
+                        persistTasks(save.tasks, save.reloadCount);
+                        // A later snapshot includes the changes that failed to save before, unless they were
+                        // refused and then replaced by the reloaded file
+                        backgroundSaveError.getAndUpdate(error -> EXTERNAL_CHANGE_MESSAGE.equals(error) ? error : null);
+                    } catch (VeggieException e) {
+                        backgroundSaveError.set(e.getMessage());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the error of the latest background save started by {@link #saveLatestAsync(List)} if it failed,
+     * and forgets it so that it is reported once.
+     *
+     * @return The error message, or null if the latest background save succeeded or was already reported.
+     */
+    public String takeBackgroundSaveError() {
+        return backgroundSaveError.getAndSet(null);
+    }
+
+    /**
+     * Returns the problems met since the last call that did not stop a load or save, such as task lines that
+     * could not be parsed and were skipped, and forgets them so that each is reported once.
+     * <p>
+     * Loads and saves may run on other threads, so nothing is printed there; the frontend shows these with
+     * its own output instead.
+     * </p>
+     *
+     * @return The warnings, oldest first, or an empty list if there are none.
+     */
+    public List<String> takeWarnings() {
+        List<String> taken = new ArrayList<>();
+        String warning;
+        while ((warning = warnings.poll()) != null) {
+            taken.add(warning);
+        }
+        return taken;
+    }
+
+    /**
+     * Keeps a problem that did not stop a load or save, for {@link #takeWarnings()}.
+     */
+    void addWarning(String warning) {
+        warnings.add(warning);
+    }
+
+    private synchronized ExecutorService getSaveExecutor() {
+        if (saveExecutor == null) {
+            saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-storage-save");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return saveExecutor;
     }
 
     private void createParentDirectories(File file) {
         file.getParentFile().mkdirs(); // Create parent directories if they don't exist
     }
 
-    private void writeTasksToFile(BufferedWriter writer, ArrayList<Task> tasks) throws IOException {
+    /**
+     * Writes one line per task, encoding descriptions with the dictionary or writing them in full if it is null.
+     */
+    private void writeTasksToFile(BufferedWriter writer, List<Task> tasks, DescriptionDictionary dictionary)
+            throws IOException {
         for (Task task : tasks) {
             if (task != null) {
-                writer.write(task.toFileString());
+                writer.write(dictionary == null
+                        ? task.toFileString()
+                        : dictionary.encode(task.toFileString(), task.getDescription()));
                 writer.newLine();
             } else {
-                System.out.println("Warning: Encountered a null task while saving.");
+                warnings.add("Warning: Encountered a null task while saving.");
             }
         }
     }
@@ -76,36 +564,165 @@ public class TaskStorage {
      * @return An {@link ArrayList} of tasks loaded from the file. If the file doesn't exist, returns an empty list.
      */
     public ArrayList<Task> loadTasks() {
+        // Taken first, so that an edit made while loading is seen as a change rather than missed
+        String fingerprint = fingerprint(watchedFile());
+        ArrayList<Task> tasks = loadTasks(0, Integer.MAX_VALUE);
+        synchronized (this) {
+            knownFingerprint = fingerprint;
+        }
+        return tasks;
+    }
+
+    /**
+     * Loads a range of tasks from the file, e.g. to show the first page of a large list.
+     * <p>
+     * Tasks outside the range are not parsed; in a block-compressed file, blocks outside
+     * the range are skipped without being decompressed.
+     * </p>
+     *
+     * @param from The index of the first task to load, starting from 0.
+     * @param count The maximum number of tasks to load.
+     * @return An {@link ArrayList} of the tasks in the range, empty if the file doesn't exist.
+     */
+    public ArrayList<Task> loadTasks(int from, int count) {
+        assert from >= 0 && count >= 0 : "Task range should not be negative";
         ArrayList<Task> tasks = new ArrayList<>();
 
         // Check if the file exists and load the tasks
-        File file = new File(FILE_PATH);
-        if (!file.exists()) {
+        File file = new File(filePath);
+        boolean isSharded = shards != null && shards.exists();
+        if (!isSharded && !file.exists()) {
             return tasks; // Return empty list if the file doesn't exist
         }
 
-        try (Scanner fileScanner = new Scanner(file)) {
-            loadTasksFromFile(fileScanner, tasks);
-        } catch (FileNotFoundException e) {
+        TaskLoadEvent event = new TaskLoadEvent();
+        event.begin();
+        try {
+            if (isSharded) {
+                tasks = shards.load(from, count);
+            } else {
+                readTaskFile(file, from, count, tasks);
+            }
+        } catch (IOException e) {
             handleFileLoadingError(e);
         }
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.setPath(filePath);
+            event.setTaskCount(tasks.size());
+            event.setBytes(isSharded ? shards.length() : file.length());
+            event.commit();
+        }
         return tasks;
     }
 
-    private void loadTasksFromFile(Scanner fileScanner, ArrayList<Task> tasks) {
-        while (fileScanner.hasNextLine()) {
-            String line = fileScanner.nextLine();
-            try {
-                Task task = Task.fromFileString(line); // This can throw VeggieException
-                tasks.add(task);
-            } catch (VeggieException e) {
-                System.out.println("Error parsing task from file: " + e.getMessage());
+    /**
+     * Reads a range of tasks from a file in either format into the given list.
+     */
+    void readTaskFile(File file, int from, int count, ArrayList<Task> tasks) throws IOException {
+        if (BlockCodec.isBlockFile(file)) {
+            try (InputStream in = new BufferedInputStream(new FileInputStream(file), READ_BUFFER_SIZE)) {
+                BlockCodec.read(in, from, count, tasks, warnings::add);
+            }
+        } else {
+            try (Scanner fileScanner = new Scanner(file)) {
+                loadTasksFromFile(fileScanner, from, count, tasks);
             }
         }
     }
 
-    private void handleFileLoadingError(FileNotFoundException e) {
-        System.out.println("Error loading tasks: " + e.getMessage());
+    private void loadTasksFromFile(Scanner fileScanner, int from, int count, ArrayList<Task> tasks) {
+        DescriptionDictionary dictionary = null;
+        if (fileScanner.hasNextLine()) {
+            String firstLine = fileScanner.nextLine();
+            if (firstLine.equals(DescriptionDictionary.HEADER)) {
+                dictionary = new DescriptionDictionary();
+            } else if (count > 0) {
+                // Plain files have no header and are read as they are
+                loadTask(firstLine, null, 0, from, tasks);
+            }
+        }
+
+        long end = (long) from + count;
+        for (long index = dictionary == null ? 1 : 0; index < end && fileScanner.hasNextLine(); index++) {
+            loadTask(fileScanner.nextLine(), dictionary, index, from, tasks);
+        }
+    }
+
+    private void loadTask(String line, DescriptionDictionary dictionary, long index, int from, ArrayList<Task> tasks) {
+        try {
+            if (dictionary != null) {
+                line = dictionary.decode(line);
+            }
+            if (index < from) {
+                // Earlier lines are only decoded, since later lines may refer to their descriptions
+                return;
+            }
+            Task task = Task.fromFileString(line); // This can throw VeggieException
+            tasks.add(task);
+        } catch (VeggieException e) {
+            warnings.add("Error parsing task from file: " + e.getMessage());
+        }
+    }
+
+    private void handleFileLoadingError(IOException e) {
+        warnings.add("Error loading tasks: " + e.getMessage());
+    }
+
+    /**
+     * Appends the given tasks to the archive file.
+     * <p>
+     * Each call writes a new GZIP member at the end of the file, so earlier archived tasks
+     * are never read or rewritten.
+     * </p>
+     *
+     * @param tasks The tasks to be archived.
+     * @throws VeggieException If the archive file could not be written.
+     */
+    public synchronized void appendToArchive(List<Task> tasks) throws VeggieException {
+        File file = new File(archivePath);
+        createParentDirectories(file);
+
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new FileOutputStream(file, true)), StandardCharsets.UTF_8))) {
+            writeTasksToFile(writer, tasks, null);
+        } catch (IOException e) {
+            throw new VeggieException("Error archiving tasks: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Finds archived tasks whose description contains the given keyword, ignoring case.
+     * The archive is streamed, so only matching tasks are kept in memory.
+     *
+     * @param keyword The keyword to search for, or an empty string to return every archived task.
+     * @return The matching archived tasks, oldest first.
+     */
+    public synchronized ArrayList<Task> findArchivedTasks(String keyword) {
+        ArrayList<Task> matchingTasks = new ArrayList<>();
+        File file = new File(archivePath);
+        if (!file.exists()) {
+            return matchingTasks;
+        }
+
+        String lowerKeyword = keyword.toLowerCase(Locale.ROOT);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                // Only lines that can match are parsed into tasks
+                if (!line.toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                    continue;
+                }
+                Task task = Task.fromFileString(line);
+                if (task.getDescription().toLowerCase(Locale.ROOT).contains(lowerKeyword)) {
+                    matchingTasks.add(task);
+                }
+            }
+        } catch (IOException | VeggieException e) {
+            warnings.add("Error reading archived tasks: " + e.getMessage());
+        }
+        return matchingTasks;
     }
 }
@@ -29,10 +29,8 @@ public class Deadline extends Task {
         assert by != null && !by.isEmpty() : "Deadline cannot be null or empty";
 
         try {
+            // Deadlines may be in the past, e.g. when loaded from file; new ones are checked by the command
             this.by = LocalDateTime.parse(by, inputFormatter);
-            // Ensure deadline is not in the past
-            assert this.by.isAfter(LocalDateTime.now()) : "Deadline cannot be in the past";
-
         } catch (DateTimeParseException e) {
             throw new VeggieException("Invalid date format! Use yyyy-MM-dd HH:mm (e.g., 2023-01-22 18:00)");
         }
@@ -51,6 +49,15 @@ public class Deadline extends Task {
         this.isDone = isDone;
     }
 
+    /**
+     * Returns the raw deadline of the task.
+     *
+     * @return The deadline as a LocalDateTime object.
+     */
+    public LocalDateTime getByDateTime() {
+        return by;
+    }
+
     /**
      * Returns a representation of the Deadline task, including its type, completion status, description, and deadline.
      * The format is: "D [status] description (by: formatted deadline)".
@@ -58,7 +65,7 @@ public class Deadline extends Task {
      * @return A string representation of the Deadline task.
      */
     @Override
-    public String toString() {
+    protected String formatDisplayString() {
         return "D [" + (isDone ? "X" : " ") + "] " + description + " (by: " + by.format(displayFormatter) + ")";
     }
 
@@ -71,7 +78,7 @@ public class Deadline extends Task {
      * @return A string representation of the Deadline task in file format.
      */
     @Override
-    public String toFileString() {
+    protected String formatFileString() {
         return "DEADLINE | " + (isDone ? "X" : "0") + " | " + description + " | " + by.format(inputFormatter);
     }
 }
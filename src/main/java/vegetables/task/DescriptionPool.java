@@ -0,0 +1,48 @@
+package vegetables.task;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Shares one String instance between tasks with identical descriptions.
+ * <p>
+ * Entries are held weakly, so a description is dropped from the pool once no task uses it anymore.
+ * The pool is split into independently locked stripes so that shards loaded in parallel rarely wait
+ * for each other.
+ * </p>
+ */
+final class DescriptionPool {
+    private static final int STRIPES = 16;
+    private static final List<Map<String, WeakReference<String>>> POOLS = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            POOLS.add(new WeakHashMap<>());
+        }
+    }
+
+    private DescriptionPool() {
+    }
+
+    /**
+     * Returns the pooled instance equal to the given description, adding it if there is none.
+     *
+     * @param description The description to pool.
+     * @return A String equal to the description that is shared by every task using it.
+     */
+    static String intern(String description) {
+        Map<String, WeakReference<String>> pool = POOLS.get(Math.floorMod(description.hashCode(), STRIPES));
+        synchronized (pool) {
+            WeakReference<String> reference = pool.get(description);
+            String pooled = reference == null ? null : reference.get();
+            if (pooled == null) {
+                pooled = description;
+                pool.put(pooled, new WeakReference<>(pooled));
+            }
+            return pooled;
+        }
+    }
+}
@@ -99,7 +99,7 @@ public class Event extends Task {
      * @return A string representation of the Event task.
      */
     @Override
-    public String toString() {
+    protected String formatDisplayString() {
         return "E [" + (isDone ? "X" : " ") + "] " + description
                 + " (from: " + from.format(displayFormatter)
                 + " to: " + to.format(displayFormatter) + ")";
@@ -114,7 +114,7 @@ public class Event extends Task {
      * @return A string representation of the Event task in file format.
      */
     @Override
-    public String toFileString() {
+    protected String formatFileString() {
         return "EVENT | " + (isDone ? "X" : "0") + " | " + description + " | "
                 + from.format(inputFormatter) + " | "
                 + to.format(inputFormatter);
@@ -0,0 +1,60 @@
+package vegetables.task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A single, dated occurrence of a Deadline or Event task.
+ * For one-off tasks there is exactly one occurrence; recurring tasks produce one
+ * occurrence per repetition, generated only when a query asks for it.
+ */
+public class Occurrence implements Comparable<Occurrence> {
+    private static final DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
+
+    private final Task task;
+    private final LocalDateTime start;
+    private final LocalDateTime end;
+
+    /**
+     * Constructs an occurrence of the given task.
+     *
+     * @param task  The task this is an occurrence of.
+     * @param start The start of the occurrence (the deadline, for Deadline tasks).
+     * @param end   The end of the occurrence (equal to {@code start} for Deadline tasks).
+     */
+    public Occurrence(Task task, LocalDateTime start, LocalDateTime end) {
+        this.task = task;
+        this.start = start;
+        this.end = end;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    @Override
+    public int compareTo(Occurrence other) {
+        return start.compareTo(other.start);
+    }
+
+    /**
+     * Returns a representation of the occurrence, e.g. "Dec 01 2025, 2:00 PM: water plants".
+     *
+     * @return A string representation of the occurrence.
+     */
+    @Override
+    public String toString() {
+        String when = start.equals(end)
+                ? start.format(displayFormatter)
+                : start.format(displayFormatter) + " - " + end.format(displayFormatter);
+        return when + ": " + task.getDescription();
+    }
+}
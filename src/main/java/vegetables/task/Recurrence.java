@@ -0,0 +1,214 @@
+package vegetables.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import vegetables.exception.VeggieException;
+
+/**
+ * Describes how a recurring task repeats, e.g. "every 2 weeks until 2025-12-31 18:00".
+ * <p>
+ * A recurrence is stored once per task. Individual occurrences are never materialized;
+ * they are computed on demand from the start of the series, so a weekly chore is a single
+ * line in the task file no matter how many times it repeats.
+ * </p>
+ */
+public class Recurrence {
+    private static final DateTimeFormatter inputFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter displayFormatter = DateTimeFormatter.ofPattern("MMM dd yyyy, h:mm a");
+
+    /**
+     * The unit in which a recurrence repeats.
+     */
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    private final Frequency frequency;
+    private final int interval;
+    private final LocalDateTime until;
+
+    /**
+     * Constructs a recurrence that repeats every {@code interval} units of {@code frequency}.
+     *
+     * @param frequency The unit in which the recurrence repeats.
+     * @param interval  The number of units between two occurrences. Must be positive.
+     * @param until     The last time an occurrence may start, or {@code null} if the recurrence never ends.
+     */
+    public Recurrence(Frequency frequency, int interval, LocalDateTime until) {
+        assert frequency != null : "Frequency cannot be null";
+        assert interval > 0 : "Interval must be positive";
+
+        this.frequency = frequency;
+        this.interval = interval;
+        this.until = until;
+    }
+
+    /**
+     * Parses a recurrence rule typed by the user.
+     * Accepted forms are "daily", "weekly", "monthly" or "[n] day(s)/week(s)/month(s)",
+     * optionally followed by "/until yyyy-MM-dd HH:mm".
+     *
+     * @param rule The recurrence rule, e.g. "2 weeks /until 2025-12-31 18:00".
+     * @return The parsed recurrence.
+     * @throws VeggieException If the rule is not in one of the accepted forms.
+     */
+    public static Recurrence parse(String rule) throws VeggieException {
+        String[] parts = rule.split("/until");
+        LocalDateTime until = null;
+        if (parts.length > 1) {
+            try {
+                until = LocalDateTime.parse(parts[1].trim(), inputFormatter);
+            } catch (DateTimeParseException e) {
+                throw new VeggieException("Invalid /until time. Use: yyyy-MM-dd HH:mm");
+            }
+        }
+
+        String[] words = parts.length == 0 ? new String[0] : parts[0].trim().toLowerCase().split("\\s+");
+        int interval = 1;
+        String unit;
+        try {
+            if (words.length == 2) {
+                interval = Integer.parseInt(words[0]);
+                unit = words[1];
+            } else if (words.length == 1) {
+                unit = words[0];
+            } else {
+                throw new VeggieException("Correct format: /every [daily|weekly|monthly|n days|n weeks|n months]");
+            }
+        } catch (NumberFormatException e) {
+            throw new VeggieException("Repeat interval must be a whole number.");
+        }
+        if (interval < 1) {
+            throw new VeggieException("Repeat interval must be at least 1.");
+        }
+
+        Frequency frequency = switch (unit) {
+        case "daily", "day", "days" -> Frequency.DAILY;
+        case "weekly", "week", "weeks" -> Frequency.WEEKLY;
+        case "monthly", "month", "months" -> Frequency.MONTHLY;
+        default -> throw new VeggieException("Unknown repeat unit: " + unit + ". Use days, weeks or months.");
+        };
+        return new Recurrence(frequency, interval, until);
+    }
+
+    /**
+     * Reconstructs a recurrence from its file representation, as produced by {@link #toFileString()}.
+     *
+     * @param recurrenceString The file representation of the recurrence.
+     * @return The reconstructed recurrence.
+     * @throws VeggieException If the string is not a valid recurrence.
+     */
+    public static Recurrence fromFileString(String recurrenceString) throws VeggieException {
+        String[] parts = recurrenceString.split(";");
+        try {
+            Frequency frequency = Frequency.valueOf(parts[0]);
+            int interval = Integer.parseInt(parts[1]);
+            LocalDateTime until = parts.length > 2 ? LocalDateTime.parse(parts[2], inputFormatter) : null;
+            return new Recurrence(frequency, interval, until);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new VeggieException("Invalid recurrence: " + recurrenceString);
+        }
+    }
+
+    /**
+     * Converts the recurrence to its file representation.
+     * The format is: "FREQUENCY;interval[;until]".
+     *
+     * @return The file representation of the recurrence.
+     */
+    public String toFileString() {
+        return frequency + ";" + interval + (until == null ? "" : ";" + until.format(inputFormatter));
+    }
+
+    /**
+     * Returns the start of the occurrence with the given index, where index 0 is the start of the series.
+     *
+     * @param start The start of the series.
+     * @param index The index of the occurrence.
+     * @return The start of the occurrence.
+     */
+    public LocalDateTime occurrence(LocalDateTime start, long index) {
+        long units = index * interval;
+        return switch (frequency) {
+        case DAILY -> start.plusDays(units);
+        case WEEKLY -> start.plusWeeks(units);
+        case MONTHLY -> start.plusMonths(units);
+        };
+    }
+
+    /**
+     * Lazily generates the starts of all occurrences that overlap the window {@code [from, to)}.
+     * <p>
+     * The first overlapping occurrence is computed directly from the start of the series, so the
+     * cost does not depend on how far the window is from the start of the series. A zero-length
+     * occurrence (a deadline) overlaps the window if it falls inside it.
+     * </p>
+     *
+     * @param start  The start of the series.
+     * @param length The length of every occurrence.
+     * @param from   The start of the window.
+     * @param to     The end of the window.
+     * @return A lazy, ordered stream of occurrence starts.
+     */
+    public Stream<LocalDateTime> occurrencesOverlapping(LocalDateTime start, Duration length,
+                                                        LocalDateTime from, LocalDateTime to) {
+        long first = firstIndexEndingAfter(start, length, from);
+        return Stream.iterate(first, index -> index + 1)
+                .map(index -> occurrence(start, index))
+                .takeWhile(occurrenceStart -> occurrenceStart.isBefore(to)
+                        && (until == null || !occurrenceStart.isAfter(until)));
+    }
+
+    private long firstIndexEndingAfter(LocalDateTime start, Duration length, LocalDateTime from) {
+        // A window open towards the past, e.g. starting at LocalDateTime.MIN, begins with the series
+        if (!from.isAfter(start)) {
+            return 0;
+        }
+        LocalDateTime latestStart = from.minus(length);
+        long estimate = switch (frequency) {
+        case DAILY -> ChronoUnit.DAYS.between(start, latestStart) / interval;
+        case WEEKLY -> ChronoUnit.WEEKS.between(start, latestStart) / interval;
+        case MONTHLY -> ChronoUnit.MONTHS.between(start, latestStart) / interval;
+        };
+        long index = Math.max(0, estimate);
+
+        // The estimate is off by at most one occurrence; step to the exact first one
+        while (index > 0 && endsAfter(occurrence(start, index - 1), length, from)) {
+            index--;
+        }
+        while (!endsAfter(occurrence(start, index), length, from)) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean endsAfter(LocalDateTime occurrenceStart, Duration length, LocalDateTime from) {
+        if (length.isZero()) {
+            return !occurrenceStart.isBefore(from);
+        }
+        return occurrenceStart.plus(length).isAfter(from);
+    }
+
+    /**
+     * Returns a readable description of the recurrence, e.g. "every 2 weeks until Dec 31 2025, 6:00 PM".
+     *
+     * @return A readable description of the recurrence.
+     */
+    @Override
+    public String toString() {
+        String unit = switch (frequency) {
+        case DAILY -> "day";
+        case WEEKLY -> "week";
+        case MONTHLY -> "month";
+        };
+        String every = interval == 1 ? "every " + unit : "every " + interval + " " + unit + "s";
+        return until == null ? every : every + " until " + until.format(displayFormatter);
+    }
+}
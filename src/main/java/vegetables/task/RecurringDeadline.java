@@ -0,0 +1,81 @@
+package vegetables.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import vegetables.exception.VeggieException;
+
+/**
+ * Represents a 'Deadline' task that repeats according to a {@link Recurrence}.
+ * The deadline given on construction is the first occurrence of the series.
+ */
+public class RecurringDeadline extends Deadline {
+    private final Recurrence recurrence;
+
+    /**
+     * Constructs a new recurring Deadline task.
+     *
+     * @param description The description of the deadline task.
+     * @param by          The first deadline in the format "yyyy-MM-dd HH:mm".
+     * @param recurrence  How the deadline repeats.
+     * @throws VeggieException If the provided deadline is not in the expected format.
+     */
+    public RecurringDeadline(String description, String by, Recurrence recurrence) throws VeggieException {
+        super(description, by);
+        assert recurrence != null : "Recurrence cannot be null";
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Constructs a new recurring Deadline task with the specified completion status.
+     *
+     * @param description The description of the deadline task.
+     * @param by          The first deadline in the format "yyyy-MM-dd HH:mm".
+     * @param recurrence  How the deadline repeats.
+     * @param isDone      The completion status of the series.
+     * @throws VeggieException If the provided deadline is not in the expected format.
+     */
+    public RecurringDeadline(String description, String by, Recurrence recurrence, boolean isDone)
+            throws VeggieException {
+        this(description, by, recurrence);
+        this.isDone = isDone;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Lazily generates the deadlines of this series that fall within {@code [from, to)}.
+     *
+     * @param from The start of the window.
+     * @param to   The end of the window.
+     * @return A lazy, ordered stream of deadlines.
+     */
+    public Stream<LocalDateTime> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        return recurrence.occurrencesOverlapping(getByDateTime(), Duration.ZERO, from, to);
+    }
+
+    /**
+     * Returns a representation of the recurring Deadline task, including how it repeats.
+     * The format is: "D [status] description (by: formatted deadline) (every ...)".
+     *
+     * @return A string representation of the recurring Deadline task.
+     */
+    @Override
+    protected String formatDisplayString() {
+        return super.formatDisplayString() + " (" + recurrence + ")";
+    }
+
+    /**
+     * Converts the recurring Deadline task to a string representation suitable for saving to a file.
+     * The format is: "DEADLINE | status | description | first deadline | recurrence".
+     *
+     * @return A string representation of the recurring Deadline task in file format.
+     */
+    @Override
+    protected String formatFileString() {
+        return super.formatFileString() + " | " + recurrence.toFileString();
+    }
+}
@@ -0,0 +1,94 @@
+package vegetables.task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import vegetables.exception.VeggieException;
+
+/**
+ * Represents an 'Event' task that repeats according to a {@link Recurrence}.
+ * The start and end times given on construction are those of the first occurrence;
+ * every later occurrence has the same length.
+ */
+public class RecurringEvent extends Event {
+    private final Recurrence recurrence;
+
+    /**
+     * Constructs a new recurring Event task.
+     *
+     * @param description The description of the event.
+     * @param from        The start time of the first occurrence in "yyyy-MM-dd HH:mm" format.
+     * @param to          The end time of the first occurrence in "yyyy-MM-dd HH:mm" format.
+     * @param recurrence  How the event repeats.
+     * @throws VeggieException If the date format is incorrect.
+     */
+    public RecurringEvent(String description, String from, String to, Recurrence recurrence)
+            throws VeggieException {
+        super(description, from, to);
+        assert recurrence != null : "Recurrence cannot be null";
+        this.recurrence = recurrence;
+    }
+
+    /**
+     * Constructs a new recurring Event task with the specified completion status.
+     *
+     * @param description The description of the event.
+     * @param from        The start time of the first occurrence in "yyyy-MM-dd HH:mm" format.
+     * @param to          The end time of the first occurrence in "yyyy-MM-dd HH:mm" format.
+     * @param recurrence  How the event repeats.
+     * @param isDone      The completion status of the series.
+     * @throws VeggieException If the date format is incorrect.
+     */
+    public RecurringEvent(String description, String from, String to, Recurrence recurrence, boolean isDone)
+            throws VeggieException {
+        this(description, from, to, recurrence);
+        this.isDone = isDone;
+    }
+
+    public Recurrence getRecurrence() {
+        return recurrence;
+    }
+
+    /**
+     * Returns the length of every occurrence of this event.
+     *
+     * @return The time between the start and end of an occurrence.
+     */
+    public Duration getLength() {
+        return Duration.between(getFromDateTime(), getToDateTime());
+    }
+
+    /**
+     * Lazily generates the start times of the occurrences of this series that overlap {@code [from, to)}.
+     *
+     * @param from The start of the window.
+     * @param to   The end of the window.
+     * @return A lazy, ordered stream of occurrence start times.
+     */
+    public Stream<LocalDateTime> occurrencesBetween(LocalDateTime from, LocalDateTime to) {
+        return recurrence.occurrencesOverlapping(getFromDateTime(), getLength(), from, to);
+    }
+
+    /**
+     * Returns a formatted string representation of the recurring Event task, including how it repeats.
+     * The format is: "E [status] description (from: start to: end) (every ...)".
+     *
+     * @return A string representation of the recurring Event task.
+     */
+    @Override
+    protected String formatDisplayString() {
+        return super.formatDisplayString() + " (" + recurrence + ")";
+    }
+
+    /**
+     * Converts the recurring Event task to a string representation suitable for saving to a file.
+     * The format is: "EVENT | status | description | first start time | first end time | recurrence".
+     *
+     * @return A string representation of the recurring Event task in file format.
+     */
+    @Override
+    protected String formatFileString() {
+        return super.formatFileString() + " | " + recurrence.toFileString();
+    }
+}
@@ -7,13 +7,16 @@ import vegetables.exception.VeggieException;
  * Provides methods for marking a task as done or not done, converting tasks to a file string,
  * and reconstructing tasks from a file string.
  */
-public abstract class Task {
+public abstract class Task implements Cloneable {
     protected String description;
     protected boolean isDone;
+    private String displayString;
+    private String fileString;
+    private long id;
 
     /**
      * Constructs a new Task with the specified description.
-     * The task is initially marked as not done.
+     * The task is initially marked as not done. Tasks with equal descriptions share one String instance.
      *
      * @param description The description of the task.
      */
@@ -21,7 +24,7 @@ public abstract class Task {
         // Ensure description is valid
         assert description != null && !description.isEmpty() : "Task description cannot be null or empty";
 
-        this.description = description;
+        this.description = DescriptionPool.intern(description);
         this.isDone = false;
     }
 
@@ -34,18 +37,60 @@ public abstract class Task {
         return description;
     }
 
+    /**
+     * Returns the id given to the task by the task list it belongs to. Copies made with
+     * {@link #withStatus(boolean)} keep the id, so it identifies the task across its versions.
+     *
+     * @return The id of the task, or 0 if it has not been given one.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Gives the task its id. Ids are not saved to the task file; they are handed out again on every load.
+     *
+     * @param id The id of the task.
+     */
+    public void assignId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Returns whether the task has been marked as done.
+     *
+     * @return true if the task is done, false otherwise.
+     */
+    public boolean isDone() {
+        return isDone;
+    }
+
     /**
      * Converts the task to a string representation suitable for saving to a file.
+     * The string is formatted once and reused until the status of the task changes.
+     *
+     * @return A string representation of the task in the file's format.
+     */
+    public String toFileString() {
+        if (fileString == null) {
+            fileString = formatFileString();
+        }
+        return fileString;
+    }
+
+    /**
+     * Formats the task for saving to a file. Subclasses define the format of their type.
      *
      * @return A string representation of the task in the file's format.
      */
-    public abstract String toFileString(); // Save task to file
+    protected abstract String formatFileString();
 
     /**
      * Marks the task as done.
      */
     public void markAsDone() {
         isDone = true;
+        clearRenderedStrings();
     }
 
     /**
@@ -53,21 +98,62 @@ public abstract class Task {
      */
     public void markAsNotDone() {
         isDone = false;
+        clearRenderedStrings();
+    }
+
+    private void clearRenderedStrings() {
+        displayString = null;
+        fileString = null;
+    }
+
+    /**
+     * Returns a copy of this task with the given completion status, leaving this task untouched.
+     * <p>
+     * Used by {@code TaskManager} so that versions of the task list kept for undo and snapshots
+     * never observe a later change of status.
+     * </p>
+     *
+     * @param isDone The completion status of the copy.
+     * @return A copy of this task with the given status.
+     */
+    public Task withStatus(boolean isDone) {
+        try {
+            Task copy = (Task) super.clone();
+            copy.isDone = isDone;
+            copy.clearRenderedStrings();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new AssertionError("Task is Cloneable", e);
+        }
     }
 
     /**
      * Returns a string representation of the task, including its completion status and description.
+     * The string is formatted once and reused until the status of the task changes.
      *
      * @return A string representation of the task.
      */
     @Override
     public String toString() {
+        if (displayString == null) {
+            displayString = formatDisplayString();
+        }
+        return displayString;
+    }
+
+    /**
+     * Formats the task for display. Subclasses add their type and dates.
+     *
+     * @return A string representation of the task.
+     */
+    protected String formatDisplayString() {
         return "[" + (isDone ? "X" : " ") + "] " + description;
     }
 
     /**
      * Reconstructs a task from its string representation in file format.
      * The format of the string is expected to be "TYPE | STATUS | DESCRIPTION [| ADDITIONAL INFO...]".
+     * Deadline and Event lines with a trailing recurrence field are reconstructed as recurring tasks.
      *
      * @param taskString The string representation of the task.
      * @return A reconstructed Task object.
@@ -92,8 +178,12 @@ public abstract class Task {
 
         return switch (taskType) {
         case "TODO" -> new ToDo(description, isDone);
-        case "DEADLINE" -> new Deadline(description, parts[3], isDone);
-        case "EVENT" -> new Event(description, parts[3], parts[4], isDone);
+        case "DEADLINE" -> parts.length > 4
+                ? new RecurringDeadline(description, parts[3], Recurrence.fromFileString(parts[4]), isDone)
+                : new Deadline(description, parts[3], isDone);
+        case "EVENT" -> parts.length > 5
+                ? new RecurringEvent(description, parts[3], parts[4], Recurrence.fromFileString(parts[5]), isDone)
+                : new Event(description, parts[3], parts[4], isDone);
         default -> null;
         };
     }
@@ -34,9 +34,10 @@ public class ToDo extends Task {
      * @return A string representation of the ToDo task.
      */
     @Override
-    public String toString() {
-        assert toString().matches("^T \\[[ X]\\] .+") : "toString() format is incorrect: " + toString();
-        return "T [" + (isDone ? "X" : " ") + "] " + description;
+    protected String formatDisplayString() {
+        String displayString = "T [" + (isDone ? "X" : " ") + "] " + description;
+        assert displayString.matches("^T \\[[ X]\\] .+") : "toString() format is incorrect: " + displayString;
+        return displayString;
     }
 
     /**
@@ -48,10 +49,10 @@ public class ToDo extends Task {
      * @return A string representation of the ToDo task in file format.
      */
     @Override
-    public String toFileString() {
-        assert toFileString().matches("^TODO \\| [X0] \\| .+")
-                : "toFileString() format is incorrect: " + toFileString();
-        return "TODO | " + (isDone ? "X" : "0") + " | " + description;
+    protected String formatFileString() {
+        String fileString = "TODO | " + (isDone ? "X" : "0") + " | " + description;
+        assert fileString.matches("^TODO \\| [X0] \\| .+") : "toFileString() format is incorrect: " + fileString;
+        return fileString;
     }
 }
 
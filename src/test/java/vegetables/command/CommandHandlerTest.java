@@ -1,6 +1,7 @@
 package vegetables.command;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.argThat;
@@ -10,10 +11,13 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
@@ -24,6 +28,7 @@ import vegetables.exception.VeggieException;
 import vegetables.manager.TaskManager;
 import vegetables.storage.TaskStorage;
 import vegetables.task.Task;
+import vegetables.task.ToDo;
 public class CommandHandlerTest {
 
     @Test
@@ -38,11 +43,21 @@ public class CommandHandlerTest {
                 + " - todo [Task description]: Adds a task without a deadline.\n"
                 + " - deadline [Task description] /by [Date/time]: Adds a task with a deadline.\n"
                 + " - event [Task description] /from [Start time] /to [End time]: Adds an event task.\n"
+                + " - add /every [daily|weekly|monthly] (/until [Date/time]) to a deadline or event to repeat it.\n"
                 + " - list: Displays all tasks in the list.\n"
                 + " - mark [Task number]: Marks a task as done.\n"
                 + " - unmark [Task number]: Unmarks a task as not done.\n"
                 + " - find [Keyword]: Finds a task by its keyword.\n"
+                + " - find also takes AND, OR, NOT/-word, ~fuzzy, prefix*, type:, done:yes|no, from: and to: dates.\n"
                 + " - delete [Task number]: Deletes a task from the list.\n"
+                + " - mark/unmark/delete also take lists and ranges (3,7,9 or 10-500); delete done clears done tasks.\n"
+                + " - upcoming [Days]: Lists deadlines and events in the next few days.\n"
+                + " - schedule [From] [To]: Lists deadlines and events between two dates or times.\n"
+                + " - conflicts: Lists every pair of events that overlap.\n"
+                + " - archive: Moves done tasks and past events to the archive.\n"
+                + " - archived [Keyword]: Searches the archive.\n"
+                + " - undo: Reverts the most recent change.\n"
+                + " - redo: Re-applies the most recently undone change.\n"
                 + " - bye: Exits the program.\n";
 
         String actual = commandHandler.executeCommand("help");
@@ -698,4 +713,138 @@ public class CommandHandlerTest {
         }
         verify(mockTaskStorage, never()).saveTasks(any(ArrayList.class));
     }
+
+    @Test
+    void executeCommand_bye_savesAndShutsDownWithoutExiting() {
+        TaskManager mockTaskManager = mock(TaskManager.class);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        ArrayList<Task> tasks = new ArrayList<>();
+        when(mockTaskManager.getTasks()).thenReturn(tasks);
+        CommandHandler handler = new CommandHandler(mockTaskManager, mockTaskStorage);
+
+        String result = handler.executeCommand("bye");
+
+        // Control returns here, and the caller decides how to exit
+        assertEquals("Bye. Hope to see you again soon!", result);
+        assertTrue(handler.isShutDown());
+        verify(mockTaskStorage).saveTasks(tasks);
+        verify(mockTaskStorage).shutdown();
+        verify(mockTaskManager).closeChanges();
+    }
+
+    @Test
+    void streamCommand_longList_emitsPiecesThatJoinToListOutput() {
+        TaskManager mockTaskManager = mock(TaskManager.class);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 450; i++) {
+            tasks.add(new ToDo("Weed bed " + i));
+        }
+        when(mockTaskManager.getTasks()).thenReturn(tasks);
+        CommandHandler handler = new CommandHandler(mockTaskManager, mockTaskStorage);
+
+        List<String> chunks = new ArrayList<>();
+        handler.streamCommand("list", chunks::add);
+
+        // 200 tasks per piece, the header travelling with the first
+        assertEquals(3, chunks.size());
+        assertTrue(chunks.get(0).startsWith("🌅 Here are the crops we've harvested so far: 🌾\n"
+                + "1.[T][ ] Weed bed 1\n"));
+        assertTrue(chunks.get(2).startsWith("401.[T][ ] Weed bed 401\n"));
+        assertEquals(handler.executeCommand("list"), String.join("", chunks));
+    }
+
+    @Test
+    void streamCommand_unchangedTasks_sendsCachedResponseWithoutFormattingAgain() {
+        TaskManager mockTaskManager = mock(TaskManager.class);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        ArrayList<Task> tasks = new ArrayList<>();
+        for (int i = 1; i <= 450; i++) {
+            tasks.add(new ToDo("Weed bed " + i));
+        }
+        when(mockTaskManager.getTasks()).thenReturn(tasks);
+        when(mockTaskManager.getVersion()).thenReturn(7L);
+        CommandHandler handler = new CommandHandler(mockTaskManager, mockTaskStorage);
+
+        List<String> streamed = new ArrayList<>();
+        handler.streamCommand("list", streamed::add);
+        List<String> cached = new ArrayList<>();
+        handler.streamCommand("list", cached::add);
+
+        // The second response comes from the cache, already formatted, in one piece
+        verify(mockTaskManager, times(1)).getTasks();
+        assertEquals(List.of(String.join("", streamed)), cached);
+    }
+
+    @Test
+    void executeCommand_savingInBackground_queuesSnapshotInsteadOfSaving() {
+        TaskManager mockTaskManager = mock(TaskManager.class);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        List<Task> snapshot = new ArrayList<>();
+        when(mockTaskManager.taskExists("Read book")).thenReturn(false);
+        when(mockTaskManager.snapshot()).thenReturn(snapshot);
+        CommandHandler handler = new CommandHandler(mockTaskManager, mockTaskStorage);
+        handler.setSavingInBackground(true);
+
+        handler.executeCommand("todo Read book");
+
+        verify(mockTaskStorage).saveLatestAsync(snapshot);
+        verify(mockTaskStorage, never()).saveTasks(any(ArrayList.class));
+    }
+
+    @Test
+    void streamCommand_backgroundSaveFailed_reportsErrorBeforeNextResponse() {
+        TaskManager mockTaskManager = mock(TaskManager.class);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        when(mockTaskManager.getTasks()).thenReturn(new ArrayList<>());
+        when(mockTaskStorage.takeBackgroundSaveError()).thenReturn("Error saving tasks to file: Disk full", null);
+        CommandHandler handler = new CommandHandler(mockTaskManager, mockTaskStorage);
+        handler.setSavingInBackground(true);
+
+        List<String> chunks = new ArrayList<>();
+        handler.streamCommand("list", chunks::add);
+
+        assertEquals(List.of("Error saving tasks to file: Disk full "
+                + "Your latest changes are only kept in memory for now.\n", "No tasks added.\n"), chunks);
+        // The error is reported once
+        assertEquals("No tasks added.\n", handler.executeCommand("list"));
+    }
+
+    @Test
+    void executeCommand_fixedClock_treatsHistoricalDeadlinesByThatClock() throws VeggieException {
+        // A deadline long past, as it would be loaded from the task file
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(Task.fromFileString("DEADLINE | 0 | Plant bulbs | 2001-01-03 09:00"));
+        TaskManager taskManager = new TaskManager(tasks);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        Clock clock = Clock.fixed(LocalDateTime.of(2001, 1, 1, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        CommandHandler handler = new CommandHandler(taskManager, mockTaskStorage, clock);
+
+        assertTrue(handler.executeCommand("upcoming 7").contains("Plant bulbs"));
+        assertEquals("Error: Deadline cannot be in the past!",
+                handler.executeCommand("deadline Order bulbs /by 2001-01-01 11:00"));
+        assertTrue(handler.executeCommand("deadline Order bulbs /by 2001-01-01 13:00").startsWith("\uD83C\uDF3E"));
+    }
+
+    @Test
+    void executeCommand_conflicts_listsEachOverlappingPairOnce() throws VeggieException {
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(Task.fromFileString("EVENT | 0 | Seed swap | 2001-01-03 10:00 | 2001-01-03 12:00"));
+        tasks.add(Task.fromFileString("EVENT | 0 | Pruning class | 2001-01-03 11:00 | 2001-01-03 13:00"));
+        tasks.add(Task.fromFileString("EVENT | 0 | Compost talk | 2001-01-03 13:00 | 2001-01-03 14:00"));
+        TaskManager taskManager = new TaskManager(tasks);
+        TaskStorage mockTaskStorage = mock(TaskStorage.class);
+        Clock clock = Clock.fixed(LocalDateTime.of(2001, 1, 1, 12, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        CommandHandler handler = new CommandHandler(taskManager, mockTaskStorage, clock);
+
+        String response = handler.executeCommand("conflicts");
+
+        // Events that only touch end to start do not clash
+        assertEquals("\u26A0\uFE0F These events overlap:\n"
+                + "1.Jan 03 2001, 10:00 AM - Jan 03 2001, 12:00 PM: Seed swap clashes with "
+                + "Jan 03 2001, 11:00 AM - Jan 03 2001, 1:00 PM: Pruning class\n", response);
+
+        taskManager.deleteTask(1);
+        assertEquals("No events overlap. Your garden calendar is clash-free!\n", handler.executeCommand("conflicts"));
+    }
 }
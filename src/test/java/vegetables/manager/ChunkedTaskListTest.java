@@ -0,0 +1,66 @@
+package vegetables.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+public class ChunkedTaskListTest {
+
+    @Test
+    void changes_randomEditsWithSnapshots_matchArrayListAndLeaveSnapshotsUnchanged() {
+        ChunkedTaskList tasks = new ChunkedTaskList(List.of());
+        ArrayList<Task> expected = new ArrayList<>();
+        List<List<Task>> snapshots = new ArrayList<>();
+        List<List<Task>> snapshotContents = new ArrayList<>();
+        Random random = new Random(27);
+        for (int i = 0; i < 5_000; i++) {
+            int choice = random.nextInt(10);
+            if (choice < 4 || expected.isEmpty()) {
+                // Inserts in the middle split chunks, and appends start new ones
+                int index = choice < 2 ? expected.size() : random.nextInt(expected.size() + 1);
+                Task task = new ToDo("Sow row " + i);
+                tasks.add(index, task);
+                expected.add(index, task);
+            } else if (choice < 6) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), tasks.remove(index));
+            } else if (choice < 8) {
+                int index = random.nextInt(expected.size());
+                Task task = new ToDo("Weed row " + i);
+                assertEquals(expected.set(index, task), tasks.set(index, task));
+            } else if (choice == 8 && snapshots.size() < 50) {
+                snapshots.add(tasks.snapshot());
+                snapshotContents.add(new ArrayList<>(expected));
+            } else {
+                int from = random.nextInt(expected.size());
+                int to = Math.min(expected.size(), from + random.nextInt(100));
+                tasks.subList(from, to).clear();
+                expected.subList(from, to).clear();
+            }
+        }
+
+        assertEquals(expected, tasks);
+        for (int i = 0; i < snapshots.size(); i++) {
+            assertEquals(snapshotContents.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    void snapshot_changed_throwsException() {
+        ChunkedTaskList tasks = new ChunkedTaskList(List.of(new ToDo("Sow beans")));
+        List<Task> snapshot = tasks.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.add(new ToDo("Sow peas")));
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.set(0, new ToDo("Sow peas")));
+        assertThrows(UnsupportedOperationException.class, snapshot::clear);
+        assertEquals(1, snapshot.size());
+    }
+}
@@ -0,0 +1,52 @@
+package vegetables.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.task.Recurrence;
+
+public class ReminderSchedulerTest {
+
+    @Test
+    void checkAt_dueTasksAndLaterChanges_remindsOnce() throws Exception {
+        // Changes are delivered before the call making them returns, so they are counted in order
+        TaskManager taskManager = new TaskManager(new ArrayList<>(), Runnable::run);
+        taskManager.addDeadlineTask("Water plants", "2099-01-01 12:00");
+        taskManager.addEventTask("Garden club", "2099-01-01 12:30", "2099-01-01 14:00");
+        taskManager.addRecurringDeadlineTask("Feed the hens", "2098-12-25 12:00", Recurrence.parse("daily"));
+        taskManager.addDeadlineTask("Order seeds", "2099-01-01 08:00");
+        taskManager.addToDoTask("Sweep the shed");
+        Clock clock = Clock.fixed(LocalDateTime.of(2099, 1, 1, 11, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        List<String> reminders = new CopyOnWriteArrayList<>();
+
+        try (ReminderScheduler scheduler = new ReminderScheduler(taskManager, clock, reminders::add)) {
+            // The deadline already past and the todo have nothing to remind
+            assertEquals(3, (int) scheduler.countPending().get(5, TimeUnit.SECONDS));
+            taskManager.addDeadlineTask("Turn the compost", "2099-01-01 12:10");
+            assertEquals(4, (int) scheduler.countPending().get(5, TimeUnit.SECONDS));
+            taskManager.markTaskAsDone(1);
+            assertEquals(3, (int) scheduler.countPending().get(5, TimeUnit.SECONDS));
+
+            scheduler.checkAt(LocalDateTime.of(2099, 1, 1, 12, 10)).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("Reminder: \"Feed the hens\" is due now.",
+                    "Reminder: \"Turn the compost\" is due now."), reminders);
+
+            scheduler.checkAt(LocalDateTime.of(2099, 1, 2, 12, 0)).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("Reminder: \"Feed the hens\" is due now.",
+                    "Reminder: \"Turn the compost\" is due now.",
+                    "Reminder: \"Garden club\" is starting now.",
+                    "Reminder: \"Feed the hens\" is due now."), reminders);
+            // Only the next day's feeding is left
+            assertEquals(1, (int) scheduler.countPending().get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package vegetables.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+import vegetables.storage.StorageFormat;
+import vegetables.storage.TaskStorage;
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+public class TaskListRegistryTest {
+
+    @Test
+    void open_overCapacity_evictsLeastRecentlyUsedListAfterSavingIt() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-lists").toFile();
+        TaskListRegistry registry = new TaskListRegistry(directory, 2, StorageFormat.PLAIN);
+
+        try (TaskListRegistry.Handle alice = registry.open("alice")) {
+            alice.getTaskManager().addDeadlineTask("Plant garlic", "2099-10-01 09:00");
+        }
+        registry.open("bob").close();
+        registry.open("carol").close();
+
+        assertFalse(registry.isLoaded("alice"));
+        assertTrue(registry.isLoaded("carol"));
+        assertTrue(new File(directory, "alice.txt").exists());
+        // Lists that never changed are dropped without being written
+        registry.open("dave").close();
+        assertFalse(new File(directory, "bob.txt").exists());
+
+        try (TaskListRegistry.Handle alice = registry.open("alice")) {
+            assertEquals("Plant garlic", alice.getTaskManager().getTasks().get(0).getDescription());
+        }
+    }
+
+    @Test
+    void open_listInUse_staysLoadedUntilReleased() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-lists").toFile();
+        TaskListRegistry registry = new TaskListRegistry(directory, 1, StorageFormat.PLAIN);
+
+        TaskListRegistry.Handle alice = registry.open("alice");
+        registry.open("bob").close();
+        // Opening another list does not evict one that is still in use, so this change is saved later
+        alice.getTaskManager().addToDoTask("Turn the compost");
+        assertTrue(registry.isLoaded("alice"));
+
+        alice.close();
+        alice.close();
+        registry.open("carol").close();
+        assertFalse(registry.isLoaded("alice"));
+        assertTrue(new File(directory, "alice.txt").exists());
+    }
+
+    @Test
+    void open_evictingList_finishesQueuedSavesAndShutsDownStorage() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-lists").toFile();
+        TaskListRegistry registry = new TaskListRegistry(directory, 1, StorageFormat.PLAIN);
+
+        TaskStorage storage;
+        try (TaskListRegistry.Handle alice = registry.open("alice")) {
+            storage = alice.getStorage();
+            alice.getTaskManager().addToDoTask("Sow carrots");
+            storage.saveTasksAsync(List.<Task>of(new ToDo("Older version")));
+            alice.getTaskManager().addToDoTask("Thin carrots");
+        }
+        registry.open("bob").close();
+
+        // The queued save was written before the latest version, not over it
+        assertThrows(RejectedExecutionException.class, () -> storage.saveTasksAsync(List.of()));
+        try (TaskListRegistry.Handle alice = registry.open("alice")) {
+            assertEquals(2, alice.getTaskManager().getTasks().size());
+        }
+    }
+
+    @Test
+    void open_sameListFromSeveralThreads_loadsItOnce()
+            throws IOException, InterruptedException, ExecutionException {
+        File directory = Files.createTempDirectory("vegetables-lists").toFile();
+        TaskListRegistry registry = new TaskListRegistry(directory, 1, StorageFormat.PLAIN);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        ArrayList<Future<TaskListRegistry.Handle>> handles = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            handles.add(executor.submit(() -> registry.open("alice")));
+        }
+        TaskManager taskManager = handles.get(0).get().getTaskManager();
+        for (Future<TaskListRegistry.Handle> handle : handles) {
+            assertSame(taskManager, handle.get().getTaskManager());
+            handle.get().close();
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    void open_invalidName_throwsException() throws IOException {
+        File directory = Files.createTempDirectory("vegetables-lists").toFile();
+        TaskListRegistry registry = new TaskListRegistry(directory, 2, StorageFormat.PLAIN);
+
+        assertThrows(VeggieException.class, () -> registry.open("../list"));
+    }
+}
@@ -0,0 +1,497 @@
+package vegetables.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+import vegetables.search.SearchQuery;
+import vegetables.task.Occurrence;
+import vegetables.task.Recurrence;
+import vegetables.task.Task;
+
+public class TaskManagerTest {
+
+    @Test
+    void snapshot_laterChanges_snapshotUnchanged() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addDeadlineTask("Water plants", "2099-01-01 12:00");
+
+        List<Task> snapshot = taskManager.snapshot();
+        taskManager.markTaskAsDone(1);
+        taskManager.addToDoTask("Pull weeds");
+
+        // The snapshot still sees the list as it was when it was taken
+        assertEquals(1, snapshot.size());
+        assertEquals("DEADLINE | 0 | Water plants | 2099-01-01 12:00", snapshot.get(0).toFileString());
+        assertEquals(2, taskManager.getTasks().size());
+        assertEquals("DEADLINE | X | Water plants | 2099-01-01 12:00", taskManager.getTasks().get(0).toFileString());
+    }
+
+    @Test
+    void undo_afterMarkAndDelete_restoresPreviousVersions() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addDeadlineTask("Water plants", "2099-01-01 12:00");
+        taskManager.markTaskAsDone(1);
+        taskManager.deleteTask(1);
+
+        taskManager.undo();
+        assertEquals("DEADLINE | X | Water plants | 2099-01-01 12:00", taskManager.getTasks().get(0).toFileString());
+
+        taskManager.undo();
+        assertEquals("DEADLINE | 0 | Water plants | 2099-01-01 12:00", taskManager.getTasks().get(0).toFileString());
+
+        taskManager.redo();
+        taskManager.redo();
+        assertEquals(0, taskManager.getTasks().size());
+    }
+
+    @Test
+    void undo_everyKindOfEdit_restoresEachVersionInTurn() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        List<Task> list = taskManager.getTasks();
+        List<String> versions = new ArrayList<>();
+        versions.add(taskManager.getTasks().toString());
+        for (int i = 1; i <= 6; i++) {
+            taskManager.addToDoTask("Sow row " + i);
+            versions.add(taskManager.getTasks().toString());
+        }
+        taskManager.markTasks(new int[] {2, 4, 5}, true);
+        versions.add(taskManager.getTasks().toString());
+        taskManager.unmarkTask(4);
+        versions.add(taskManager.getTasks().toString());
+        taskManager.deleteTask(1);
+        versions.add(taskManager.getTasks().toString());
+        // With no snapshot handed out, the list is changed in place rather than copied
+        assertSame(list, taskManager.getTasks());
+        taskManager.deleteTasks(new int[] {1, 3, 5});
+        versions.add(taskManager.getTasks().toString());
+        ArrayList<Task> reloaded = new ArrayList<>(taskManager.getTasks());
+        reloaded.add(0, Task.fromFileString("TODO | 0 | Sow row 7"));
+        taskManager.reconcile(reloaded);
+        versions.add(taskManager.getTasks().toString());
+
+        for (int i = versions.size() - 2; i >= 0; i--) {
+            taskManager.undo();
+            assertEquals(versions.get(i), taskManager.getTasks().toString());
+        }
+        for (int i = 1; i < versions.size(); i++) {
+            taskManager.redo();
+            assertEquals(versions.get(i), taskManager.getTasks().toString());
+        }
+    }
+
+    @Test
+    void undo_noHistory_throwsException() {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+
+        assertThrows(VeggieException.class, taskManager::undo);
+        assertThrows(VeggieException.class, taskManager::redo);
+    }
+
+    @Test
+    void redo_afterNewChange_historyCleared() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addDeadlineTask("Water plants", "2099-01-01 12:00");
+        taskManager.undo();
+        taskManager.addToDoTask("Pull weeds");
+
+        assertThrows(VeggieException.class, taskManager::redo);
+    }
+
+    @Test
+    void findOccurrences_weeklyDeadline_generatesOccurrencesInWindow() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addRecurringDeadlineTask("Water plants", "2099-01-01 09:00", Recurrence.parse("weekly"));
+
+        List<Occurrence> occurrences = taskManager.findOccurrences(
+                LocalDateTime.of(2099, 1, 10, 0, 0), LocalDateTime.of(2099, 2, 1, 0, 0));
+
+        assertEquals(3, occurrences.size());
+        assertEquals(LocalDateTime.of(2099, 1, 15, 9, 0), occurrences.get(0).getStart());
+        assertEquals(LocalDateTime.of(2099, 1, 29, 9, 0), occurrences.get(2).getStart());
+    }
+
+    @Test
+    void findOccurrences_longEventAndWideRange_findsEveryOverlap() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addEventTask("Orchard lease", "2099-01-01 00:00", "2109-01-01 00:00");
+        taskManager.addDeadlineTask("Prune apples", "2099-02-01 09:00");
+        taskManager.addEventTask("Cider weekend", "2100-09-04 10:00", "2100-09-06 18:00");
+
+        assertEquals(2, taskManager.findOccurrences(
+                LocalDateTime.of(2100, 9, 5, 0, 0), LocalDateTime.of(2100, 9, 6, 0, 0)).size());
+        List<Occurrence> all = taskManager.findOccurrences(
+                LocalDateTime.of(2000, 1, 1, 0, 0), LocalDateTime.of(2500, 1, 1, 0, 0));
+        assertEquals(3, all.size());
+        assertEquals("Orchard lease", all.get(0).getTask().getDescription());
+
+        taskManager.deleteTask(1);
+        assertEquals(1, taskManager.findOccurrences(
+                LocalDateTime.of(2100, 9, 5, 0, 0), LocalDateTime.of(2100, 9, 6, 0, 0)).size());
+    }
+
+    @Test
+    void checkEventClash_recurringEvent_detectsLaterOccurrence() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addRecurringEventTask("Garden club", "2099-01-01 10:00", "2099-01-01 11:00",
+                Recurrence.parse("weekly"));
+
+        // Nine weeks after the first meeting
+        assertNotNull(taskManager.checkEventClash(
+                LocalDateTime.of(2099, 3, 5, 10, 30), LocalDateTime.of(2099, 3, 5, 11, 30)));
+        assertNull(taskManager.checkEventClash(
+                LocalDateTime.of(2099, 3, 6, 10, 30), LocalDateTime.of(2099, 3, 6, 11, 30)));
+    }
+
+    @Test
+    void deleteTasks_severalTaskNumbers_keepsRemainingTasksInOrder() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        for (int i = 1; i <= 6; i++) {
+            taskManager.addDeadlineTask("Harvest bed " + i, "2099-01-01 12:00");
+        }
+        taskManager.markTasks(new int[] {2, 5}, true);
+
+        taskManager.deleteTasks(taskManager.getDoneTaskNumbers());
+
+        assertEquals(4, taskManager.getTasks().size());
+        assertEquals("Harvest bed 6", taskManager.getTasks().get(3).getDescription());
+        assertEquals(0, taskManager.getDoneTaskNumbers().length);
+
+        // The whole batch is undone in one step
+        taskManager.undo();
+        assertEquals(6, taskManager.getTasks().size());
+    }
+
+    @Test
+    void search_booleanFuzzyAndFilters_returnsRankedMatches() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addDeadlineTask("Water tomato seedlings", "2099-01-05 08:00");
+        taskManager.addDeadlineTask("Water the cucumbers", "2099-02-05 08:00");
+        taskManager.addEventTask("Tomato tasting", "2099-01-10 10:00", "2099-01-10 12:00");
+        taskManager.markTaskAsDone(2);
+
+        List<Task> watering = taskManager.search(SearchQuery.parse("water -cucumbers"));
+        assertEquals(1, watering.size());
+        assertEquals("Water tomato seedlings", watering.get(0).getDescription());
+
+        // The exact match ranks above the fuzzy one
+        List<Task> tomatoes = taskManager.search(SearchQuery.parse("tasting OR ~tomatos"));
+        assertEquals(2, tomatoes.size());
+        assertEquals("Tomato tasting", tomatoes.get(0).getDescription());
+
+        assertEquals(1, taskManager.search(SearchQuery.parse("water done:yes")).size());
+        assertEquals(1, taskManager.search(SearchQuery.parse("type:event")).size());
+        assertEquals(2, taskManager.search(SearchQuery.parse("from:2099-01-01 to:2099-01-31")).size());
+
+        // The index follows later changes
+        taskManager.deleteTask(1);
+        assertEquals(0, taskManager.search(SearchQuery.parse("seed*")).size());
+    }
+
+    @Test
+    void findTasksBySubstring_turkishDefaultLocale_matchesLikeTypeAhead() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Set the DRIP TIMER");
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            // In Turkish, "I" lowercases to a dotless "ı", which "timer" would not match
+            assertEquals(1, taskManager.findTasksBySubstring("timer").size());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void search_alternativesOfDifferentRarity_ranksRareWordAboveCommonOne() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Water peas");
+        taskManager.addToDoTask("Water leeks");
+        taskManager.addToDoTask("Water beans");
+        taskManager.addToDoTask("Harvest beans");
+
+        List<Task> results = taskManager.search(SearchQuery.parse("water OR beans"));
+
+        assertEquals(List.of("Water beans", "Harvest beans", "Water peas", "Water leeks"),
+                results.stream().map(Task::getDescription).toList());
+    }
+
+    @Test
+    void search_onlyFiltersAndExclusions_returnsPassingTasksInListOrder() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Water peas");
+        taskManager.addDeadlineTask("Water beans", "2099-01-05 08:00");
+        taskManager.addToDoTask("Harvest beans");
+        taskManager.addToDoTask("Weed leeks");
+        taskManager.markTaskAsDone(4);
+
+        List<Task> openToDos = taskManager.search(SearchQuery.parse("type:todo done:no"));
+        assertEquals(List.of("Water peas", "Harvest beans"), openToDos.stream().map(Task::getDescription).toList());
+        List<Task> withoutBeans = taskManager.search(SearchQuery.parse("-beans"));
+        assertEquals(List.of("Water peas", "Weed leeks"), withoutBeans.stream().map(Task::getDescription).toList());
+
+        // Marking a task moves it between the done and open filters
+        taskManager.unmarkTask(4);
+        assertEquals(3, taskManager.search(SearchQuery.parse("type:todo done:no")).size());
+    }
+
+    @Test
+    void search_openDateRangeOverRecurringTasks_matchesOccurrencesInRange() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addRecurringEventTask("Garden club", "2099-01-01 10:00", "2099-01-01 11:00",
+                Recurrence.parse("weekly /until 2099-03-01 00:00"));
+        taskManager.addRecurringDeadlineTask("Feed the hens", "2099-06-01 08:00", Recurrence.parse("daily"));
+
+        List<Task> before = taskManager.search(SearchQuery.parse("to:2100-01-01"));
+        assertEquals(2, before.size());
+        assertEquals(1, taskManager.search(SearchQuery.parse("to:2099-02-01")).size());
+
+        // The club stops meeting in March, the hens are fed for ever
+        List<Task> after = taskManager.search(SearchQuery.parse("from:2099-04-01"));
+        assertEquals(1, after.size());
+        assertEquals("Feed the hens", after.get(0).getDescription());
+        assertEquals(2, taskManager.search(SearchQuery.parse("from:2098-01-01")).size());
+    }
+
+    @Test
+    void search_afterMarkAndExternalInsert_keepsListOrder() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Weed bed 1");
+        taskManager.addToDoTask("Weed bed 2");
+        taskManager.addToDoTask("Weed bed 3");
+        taskManager.search(SearchQuery.parse("weed"));
+
+        taskManager.markTaskAsDone(1);
+        List<Task> afterMark = taskManager.search(SearchQuery.parse("weed"));
+        assertEquals("Weed bed 1", afterMark.get(0).getDescription());
+        assertTrue(afterMark.get(0).isDone());
+
+        // Another program inserted a task in the middle of the list
+        List<Task> reloaded = new ArrayList<>(taskManager.getTasks());
+        reloaded.add(1, Task.fromFileString("TODO | 0 | Weed bed 1b"));
+        taskManager.reconcile(reloaded);
+        List<Task> afterInsert = taskManager.search(SearchQuery.parse("weed"));
+        assertEquals(taskManager.getTasks(), afterInsert);
+    }
+
+    @Test
+    void getVersion_changesOnEveryMutationOnly() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        long initial = taskManager.getVersion();
+
+        taskManager.addDeadlineTask("Repot basil", "2099-01-01 12:00");
+        long afterAdd = taskManager.getVersion();
+        taskManager.findTasksBySubstring("basil");
+        taskManager.snapshot();
+        assertEquals(afterAdd, taskManager.getVersion());
+
+        taskManager.markTaskAsDone(1);
+        long afterMark = taskManager.getVersion();
+        taskManager.undo();
+
+        assertNotEquals(initial, afterAdd);
+        assertNotEquals(afterAdd, afterMark);
+        assertNotEquals(afterMark, taskManager.getVersion());
+    }
+
+    @Test
+    void markTaskAsDone_todo_renderedStringsFollowStatus() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Turn the compost");
+        Task before = taskManager.getTasks().get(0);
+        assertEquals("T [ ] Turn the compost", before.toString());
+
+        taskManager.markTaskAsDone(1);
+
+        assertEquals("T [X] Turn the compost", taskManager.getTasks().get(0).toString());
+        assertEquals("TODO | X | Turn the compost", taskManager.getTasks().get(0).toFileString());
+        // The earlier version keeps its own rendering
+        assertEquals("T [ ] Turn the compost", before.toString());
+    }
+
+    @Test
+    void reconcile_externalEdit_keepsUnchangedTaskInstances() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        for (int i = 1; i <= 5; i++) {
+            taskManager.addDeadlineTask("Stake bean row " + i, "2099-05-0" + i + " 08:00");
+        }
+        List<Task> before = new ArrayList<>(taskManager.getTasks());
+
+        // Another program marked row 2, removed row 4 and appended a new task
+        List<Task> reloaded = new ArrayList<>();
+        for (Task task : before) {
+            reloaded.add(Task.fromFileString(task.toFileString()));
+        }
+        reloaded.set(1, reloaded.get(1).withStatus(true));
+        reloaded.remove(3);
+        reloaded.add(Task.fromFileString("TODO | 0 | Order more canes"));
+
+        assertEquals(4, taskManager.reconcile(reloaded));
+        assertEquals(5, taskManager.getTasks().size());
+        assertSame(before.get(2), taskManager.getTasks().get(2));
+        assertTrue(taskManager.getTasks().get(1).isDone());
+        assertEquals("Order more canes", taskManager.getTasks().get(4).getDescription());
+        assertEquals(0, taskManager.reconcile(reloaded));
+
+        taskManager.undo();
+        assertEquals(before, taskManager.getTasks());
+    }
+
+    @Test
+    void findEventConflicts_recurringAndOneOffEvents_reportsEachPairAtFirstClash() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addRecurringEventTask("Garden club", "2099-01-01 10:00", "2099-01-01 11:00",
+                Recurrence.parse("weekly"));
+        taskManager.addEventTask("Seed swap", "2099-01-15 10:30", "2099-01-15 12:00");
+        taskManager.addEventTask("Pruning class", "2099-01-15 11:30", "2099-01-15 13:00");
+        taskManager.addEventTask("Plot tour", "2099-01-22 11:00", "2099-01-22 12:00");
+        taskManager.addRecurringEventTask("Watering rota", "2099-01-01 10:45", "2099-01-01 11:15",
+                Recurrence.parse("daily"));
+
+        List<EventConflict> conflicts = taskManager.findEventConflicts(LocalDateTime.of(2099, 3, 1, 0, 0));
+
+        List<String> pairs = new ArrayList<>();
+        for (EventConflict conflict : conflicts) {
+            pairs.add(conflict.getFirst().getTask().getDescription() + " / "
+                    + conflict.getSecond().getTask().getDescription());
+        }
+        // The club and the rota clash every week but are reported once, at their first meeting
+        assertEquals(List.of("Garden club / Watering rota", "Garden club / Seed swap", "Seed swap / Watering rota",
+                "Seed swap / Pruning class", "Watering rota / Plot tour"), pairs);
+        assertEquals(LocalDateTime.of(2099, 1, 1, 10, 0), conflicts.get(0).getFirst().getStart());
+        assertEquals(LocalDateTime.of(2099, 1, 15, 10, 45), conflicts.get(2).getSecond().getStart());
+    }
+
+    @Test
+    void findEventConflicts_oneOffEventBeyondHorizon_checkedAgainstSeriesDirectly() throws VeggieException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addRecurringEventTask("Watering rota", "2099-01-01 10:45", "2099-01-01 11:15",
+                Recurrence.parse("daily"));
+        taskManager.addRecurringEventTask("Garden club", "2099-01-01 10:00", "2099-01-01 11:00",
+                Recurrence.parse("weekly"));
+        taskManager.addEventTask("Millennium picnic", "2999-06-01 11:00", "2999-06-01 14:00");
+        taskManager.addEventTask("Late tea", "2999-06-01 16:00", "2999-06-01 17:00");
+
+        List<EventConflict> conflicts = taskManager.findEventConflicts(LocalDateTime.of(2099, 1, 3, 0, 0));
+
+        // Only the rota meets the picnic; the club and the rota clash on the first day
+        assertEquals(2, conflicts.size());
+        assertEquals("Garden club", conflicts.get(0).getFirst().getTask().getDescription());
+        assertEquals("Watering rota", conflicts.get(1).getFirst().getTask().getDescription());
+        assertEquals(LocalDateTime.of(2999, 6, 1, 10, 45), conflicts.get(1).getFirst().getStart());
+        assertEquals("Millennium picnic", conflicts.get(1).getSecond().getTask().getDescription());
+    }
+
+    @Test
+    void getChanges_subscriber_receivesTypedEventsInOrder() throws Exception {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        taskManager.addToDoTask("Sharpen shears");
+        BlockingQueue<TaskChangeEvent> received = new LinkedBlockingQueue<>();
+        taskManager.getChanges().subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(TaskChangeEvent event) {
+                received.add(event);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        taskManager.addToDoTask("Oil the hinges");
+        taskManager.markTaskAsDone(2);
+        taskManager.deleteTasks(new int[] {1, 2});
+        taskManager.undo();
+        taskManager.closeChanges();
+
+        TaskChangeEvent added = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.ADDED, added.getType());
+        assertEquals(1, added.getIndex());
+        TaskChangeEvent updated = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.UPDATED, updated.getType());
+        // The marked copy keeps the id of the task it replaced
+        assertEquals(added.getTaskId(), updated.getTaskId());
+        assertTrue(updated.getTask().isDone());
+        TaskChangeEvent firstRemoved = received.poll(5, TimeUnit.SECONDS);
+        TaskChangeEvent secondRemoved = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.REMOVED, secondRemoved.getType());
+        assertEquals(0, firstRemoved.getIndex());
+        assertEquals(0, secondRemoved.getIndex());
+        assertEquals(added.getTaskId(), secondRemoved.getTaskId());
+        TaskChangeEvent reset = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.RESET, reset.getType());
+        assertEquals(taskManager.getTasks(), reset.getTasks());
+    }
+
+    @Test
+    void reconcile_oneLineEdited_publishesOnlyThatChange() throws VeggieException, InterruptedException {
+        TaskManager taskManager = new TaskManager(new ArrayList<>());
+        for (int i = 1; i <= 5; i++) {
+            taskManager.addToDoTask("Prune tree " + i);
+        }
+        BlockingQueue<TaskChangeEvent> received = new LinkedBlockingQueue<>();
+        taskManager.getChanges().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(TaskChangeEvent event) {
+                received.add(event);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        // Another program marks the third task as done
+        ArrayList<Task> reloaded = new ArrayList<>(taskManager.getTasks());
+        reloaded.set(2, Task.fromFileString("TODO | X | Prune tree 3"));
+        taskManager.reconcile(reloaded);
+        taskManager.closeChanges();
+
+        TaskChangeEvent removed = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.REMOVED, removed.getType());
+        assertEquals(2, removed.getIndex());
+        TaskChangeEvent added = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(TaskChangeEvent.Type.ADDED, added.getType());
+        assertEquals(2, added.getIndex());
+        assertTrue(added.getTask().isDone());
+        assertNull(received.poll(100, TimeUnit.MILLISECONDS));
+    }
+}
@@ -0,0 +1,57 @@
+package vegetables.manager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TimerWheelTest {
+
+    @Test
+    void advanceTo_timersAcrossLevels_fireInTickOrder() {
+        TimerWheel<Long> wheel = new TimerWheel<>(1_000);
+        Random random = new Random(49);
+        List<Long> expected = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            // Spread over every level, including ticks past the last one
+            long tick = 1_000 + 1 + (long) Math.pow(2, random.nextDouble() * 34);
+            wheel.schedule(tick, tick);
+            expected.add(tick);
+        }
+        expected.sort(null);
+
+        List<Long> fired = new ArrayList<>();
+        long[] stops = {1_063, 5_000, 300_000, 20_000_000, 1L << 35};
+        for (long stop : stops) {
+            wheel.advanceTo(stop, tick -> {
+                fired.add(tick);
+                // Each timer fires at its own tick
+                assertEquals((long) tick, wheel.getCurrentTick());
+            });
+        }
+
+        assertEquals(expected, fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancel_pendingTimer_neverFires() {
+        TimerWheel<String> wheel = new TimerWheel<>(0);
+        TimerWheel.Timer<String> cancelled = wheel.schedule(5_000, "cancelled");
+        wheel.schedule(5_000, "kept");
+        wheel.schedule(-3, "overdue");
+
+        wheel.cancel(cancelled);
+        wheel.cancel(cancelled);
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(10_000, fired::add);
+
+        assertEquals(List.of("overdue", "kept"), fired);
+        assertFalse(cancelled.isScheduled());
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,46 @@
+package vegetables.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+public class TypeAheadSearchTest {
+
+    @Test
+    void update_typingQuickly_searchesOnlyLatestKeyword() throws InterruptedException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            tasks.add(new ToDo((i % 2 == 0 ? "Weed bed " : "Water bed ") + i));
+        }
+        BlockingQueue<String> results = new LinkedBlockingQueue<>();
+        TypeAheadSearch typeAheadSearch = new TypeAheadSearch(50,
+                (keyword, matches) -> results.add(keyword + ":" + matches.size()));
+
+        typeAheadSearch.update(tasks, 1, "w");
+        typeAheadSearch.update(tasks, 1, "we");
+        typeAheadSearch.update(tasks, 1, "Wee");
+        assertEquals("Wee:500", results.poll(5, TimeUnit.SECONDS));
+        assertNull(results.poll(200, TimeUnit.MILLISECONDS));
+
+        // Extending the keyword narrows the last results; deleting goes back to earlier ones
+        typeAheadSearch.update(tasks, 1, "weed bed 1");
+        assertEquals("weed bed 1:55", results.poll(5, TimeUnit.SECONDS));
+        typeAheadSearch.update(tasks, 1, "w");
+        assertEquals("w:1000", results.poll(5, TimeUnit.SECONDS));
+
+        typeAheadSearch.update(tasks, 1, "water");
+        typeAheadSearch.cancel();
+        assertNull(results.poll(200, TimeUnit.MILLISECONDS));
+        typeAheadSearch.close();
+    }
+}
@@ -0,0 +1,61 @@
+package vegetables.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Deadline;
+import vegetables.task.Task;
+
+public class BlockCodecTest {
+
+    @Test
+    void read_rangeAcrossBlocks_returnsOnlyThoseTasks() throws IOException, VeggieException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < BlockCodec.TASKS_PER_BLOCK * 2 + 10; i++) {
+            tasks.add(new Deadline("Sow bed " + i, "2099-01-01 12:00", i % 2 == 0));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockCodec.write(out, tasks);
+
+        List<Task> all = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        BlockCodec.read(new ByteArrayInputStream(out.toByteArray()), 0, Integer.MAX_VALUE, all, warnings::add);
+        List<Task> page = new ArrayList<>();
+        int from = BlockCodec.TASKS_PER_BLOCK - 2;
+        BlockCodec.read(new ByteArrayInputStream(out.toByteArray()), from, 5, page, warnings::add);
+
+        assertEquals(List.of(), warnings);
+        assertEquals(tasks.size(), all.size());
+        assertEquals(tasks.get(tasks.size() - 1).toFileString(), all.get(all.size() - 1).toFileString());
+        assertEquals(5, page.size());
+        for (int i = 0; i < page.size(); i++) {
+            assertEquals(tasks.get(from + i).toFileString(), page.get(i).toFileString());
+        }
+    }
+
+    @Test
+    void read_truncatedBlock_throwsInsteadOfPadding() throws IOException, VeggieException {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Deadline("Sow bed " + i, "2099-01-01 12:00"));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BlockCodec.write(out, tasks);
+        byte[] bytes = out.toByteArray();
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 10);
+
+        assertThrows(IOException.class, () ->
+                BlockCodec.read(new ByteArrayInputStream(truncated), 0, Integer.MAX_VALUE, new ArrayList<>(),
+                        warning -> { }));
+    }
+}
@@ -0,0 +1,47 @@
+package vegetables.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+
+public class DescriptionDictionaryTest {
+
+    @Test
+    void encode_repeatedDescription_writesReference() {
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+
+        assertEquals("TODO | 0 | Water the seedlings", dictionary.encode(
+                "TODO | 0 | Water the seedlings", "Water the seedlings"));
+        assertEquals("DEADLINE | X | ^0 | 2099-01-01 12:00", dictionary.encode(
+                "DEADLINE | X | Water the seedlings | 2099-01-01 12:00", "Water the seedlings"));
+        // References are only used when they are shorter than the description
+        assertEquals("TODO | 0 | Go", dictionary.encode("TODO | 0 | Go", "Go"));
+        assertEquals("TODO | 0 | Go", dictionary.encode("TODO | 0 | Go", "Go"));
+    }
+
+    @Test
+    void decode_encodedLines_restoresDescriptions() throws VeggieException {
+        String[][] tasks = {
+            {"TODO | 0 | Water the seedlings", "Water the seedlings"},
+            {"TODO | 0 | ^3 carrots", "^3 carrots"},
+            {"EVENT | 0 | Water the seedlings | 2099-01-01 10:00 | 2099-01-01 11:00", "Water the seedlings"},
+            {"TODO | X | ^3 carrots", "^3 carrots"},
+        };
+        DescriptionDictionary encoder = new DescriptionDictionary();
+        DescriptionDictionary decoder = new DescriptionDictionary();
+
+        for (String[] task : tasks) {
+            assertEquals(task[0], decoder.decode(encoder.encode(task[0], task[1])));
+        }
+    }
+
+    @Test
+    void decode_undefinedReference_throwsException() {
+        DescriptionDictionary dictionary = new DescriptionDictionary();
+
+        assertThrows(VeggieException.class, () -> dictionary.decode("TODO | 0 | ^5"));
+    }
+}
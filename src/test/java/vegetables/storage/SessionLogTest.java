@@ -0,0 +1,61 @@
+package vegetables.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class SessionLogTest {
+
+    @Test
+    void read_afterManyMessages_returnsRequestedRangeInOrder() throws IOException {
+        Path path = Files.createTempFile("vegetables-session", ".log");
+        SessionLog sessionLog = new SessionLog(path);
+        for (int i = 0; i < 1000; i++) {
+            sessionLog.append(i % 2 == 0, "list " + i);
+        }
+        assertEquals(1000, sessionLog.append(false, "🌅 Here are the crops:\n1.[T][ ] Dig beds\n"));
+
+        List<SessionLog.Entry> entries = sessionLog.read(998, 1001);
+
+        assertEquals(3, entries.size());
+        assertTrue(entries.get(0).isUser());
+        assertEquals("list 999", entries.get(1).getText());
+        assertFalse(entries.get(2).isUser());
+        assertEquals("🌅 Here are the crops:\n1.[T][ ] Dig beds\n", entries.get(2).getText());
+        assertThrows(IndexOutOfBoundsException.class, () -> sessionLog.read(1000, 1002));
+
+        sessionLog.close();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void extend_streamedResponse_readsBackCompleteTextAndWritesEachPartOnce() throws IOException {
+        Path path = Files.createTempFile("vegetables-session", ".log");
+        SessionLog sessionLog = new SessionLog(path);
+        sessionLog.append(true, "list");
+        sessionLog.append(false, "🌅 Here are the crops:\n");
+        sessionLog.append(true, "todo Water beans");
+        long sizeBeforeParts = Files.size(path);
+
+        sessionLog.extend(1, "1.[T][ ] Dig beds\n");
+        sessionLog.extend(1, "2.[T][ ] Water beans\n");
+
+        List<SessionLog.Entry> entries = sessionLog.read(0, 3);
+        assertEquals("list", entries.get(0).getText());
+        assertEquals("🌅 Here are the crops:\n1.[T][ ] Dig beds\n2.[T][ ] Water beans\n", entries.get(1).getText());
+        assertFalse(entries.get(1).isUser());
+        assertEquals("todo Water beans", entries.get(2).getText());
+        // Two records of their own, and none repeating the text already written
+        assertEquals(sizeBeforeParts + 2 * 13 + 18 + 21, Files.size(path));
+        assertThrows(IndexOutOfBoundsException.class, () -> sessionLog.extend(3, "Bye."));
+        sessionLog.close();
+    }
+}
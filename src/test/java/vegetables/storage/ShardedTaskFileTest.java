@@ -0,0 +1,79 @@
+package vegetables.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Deadline;
+import vegetables.task.Task;
+
+public class ShardedTaskFileTest {
+
+    @Test
+    void save_singleTaskChanged_rewritesOnlyItsShard() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-shards").toFile();
+        TaskStorage storage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 4);
+        ShardedTaskFile shards = new ShardedTaskFile(new File(directory, "shards"), 4, storage);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Deadline("Thin out row " + i, "2099-01-01 12:00", false));
+        }
+
+        assertEquals(3, shards.save(tasks));
+        tasks.set(5, tasks.get(5).withStatus(true));
+        assertEquals(1, shards.save(tasks));
+        tasks.remove(0);
+        assertEquals(3, shards.save(tasks));
+
+        ShardedTaskFile reopened = new ShardedTaskFile(new File(directory, "shards"), 4, storage);
+        List<Task> loaded = reopened.load(0, Integer.MAX_VALUE);
+        assertEquals(9, loaded.size());
+        assertEquals(tasks.get(4).toFileString(), loaded.get(4).toFileString());
+        assertEquals(tasks.get(5).toFileString(), reopened.load(5, 1).get(0).toFileString());
+        // Loading everything lets the next save skip unchanged shards
+        assertEquals(0, reopened.save(loaded));
+
+        // Shrinking the list removes shards that are no longer needed
+        assertEquals(0, reopened.save(loaded.subList(0, 4)));
+        String[] files = new File(directory, "shards").list();
+        assertEquals(2, files.length);
+        for (String file : files) {
+            assertTrue(file.equals("shards.txt") || file.startsWith("shard-00000-"));
+        }
+    }
+
+    @Test
+    void save_interruptedWhileWritingShards_previousSaveStillLoads() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-shards").toFile();
+        TaskStorage storage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 2);
+        File shardDirectory = new File(directory, "shards");
+        ShardedTaskFile shards = new ShardedTaskFile(shardDirectory, 2, storage);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new Deadline("Net the brassicas " + i, "2099-01-01 12:00", false));
+        }
+        shards.save(tasks);
+
+        // The second shard of the next save cannot be written
+        assertTrue(new File(shardDirectory, "shard-00001-2.txt").mkdir());
+        tasks.set(0, tasks.get(0).withStatus(true));
+        tasks.set(3, tasks.get(3).withStatus(true));
+        assertThrows(IOException.class, () -> shards.save(tasks));
+
+        List<Task> loaded = new ShardedTaskFile(shardDirectory, 2, storage).load(0, Integer.MAX_VALUE);
+        assertEquals(4, loaded.size());
+        for (Task task : loaded) {
+            assertFalse(task.isDone());
+        }
+    }
+}
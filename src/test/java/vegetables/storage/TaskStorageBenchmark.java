@@ -0,0 +1,112 @@
+package vegetables.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Deadline;
+import vegetables.task.Event;
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+/**
+ * Compares save time, load time and file size of the storage formats, in a single file and sharded.
+ * Not a unit test; run it with an optional task count, e.g. {@code TaskStorageBenchmark 1000000}.
+ */
+public class TaskStorageBenchmark {
+    private static final String[] CROPS = {"tomatoes", "carrots", "basil", "cucumbers", "lettuce", "peppers"};
+    private static final String[] CHORES = {"Water", "Weed", "Harvest", "Fertilise", "Prune", "Mulch"};
+    private static final int[] SHARD_SIZES = {0, 65_536};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException, VeggieException {
+        int taskCount = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        List<Task> tasks = generateTasks(taskCount);
+
+        for (int shardSize : SHARD_SIZES) {
+            for (StorageFormat format : StorageFormat.values()) {
+                File directory = Files.createTempDirectory("vegetables-benchmark").toFile();
+                run(() -> new TaskStorage(directory, "list", format, shardSize), new ArrayList<>(tasks),
+                        format + (shardSize > 0 ? " x" + shardSize : ""), directory);
+                deleteRecursively(directory);
+            }
+        }
+    }
+
+    private static void run(Supplier<TaskStorage> storages, List<Task> tasks, String label, File directory) {
+        long saveNanos = Long.MAX_VALUE;
+        long loadNanos = Long.MAX_VALUE;
+        long pageNanos = Long.MAX_VALUE;
+        long changeNanos = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            // A fresh storage has not saved anything yet, so the first save writes every task
+            TaskStorage storage = storages.get();
+            long start = System.nanoTime();
+            storage.saveTasks(tasks);
+            saveNanos = Math.min(saveNanos, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            List<Task> loaded = storage.loadTasks();
+            loadNanos = Math.min(loadNanos, System.nanoTime() - start);
+            assert loaded.size() == tasks.size() : "Every task should be loaded";
+            // Like the application, keep working on the tasks that were loaded
+            tasks = loaded;
+
+            start = System.nanoTime();
+            storage.loadTasks(tasks.size() / 2, 50);
+            pageNanos = Math.min(pageNanos, System.nanoTime() - start);
+
+            // Saving again after a single task changed, as after a mark command
+            int middle = tasks.size() / 2;
+            tasks.set(middle, tasks.get(middle).withStatus(!tasks.get(middle).isDone()));
+            start = System.nanoTime();
+            storage.saveTasks(tasks);
+            changeNanos = Math.min(changeNanos, System.nanoTime() - start);
+        }
+        System.out.printf("%-18s save %5d ms  save one change %5d ms  load %5d ms  page of 50 %5d ms  size %,12d%n",
+                label, saveNanos / 1_000_000, changeNanos / 1_000_000, loadNanos / 1_000_000,
+                pageNanos / 1_000_000, sizeOf(directory));
+    }
+
+    private static long sizeOf(File file) {
+        File[] children = file.listFiles();
+        if (children == null) {
+            return file.length();
+        }
+        long size = 0;
+        for (File child : children) {
+            size += sizeOf(child);
+        }
+        return size;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static List<Task> generateTasks(int taskCount) throws VeggieException {
+        List<Task> tasks = new ArrayList<>(taskCount);
+        for (int i = 0; i < taskCount; i++) {
+            String description = CHORES[i % CHORES.length] + " the " + CROPS[(i / 7) % CROPS.length]
+                    + " in bed " + (i % 500);
+            String date = String.format("2099-%02d-%02d", i % 12 + 1, i % 28 + 1);
+            Task task = switch (i % 3) {
+            case 0 -> new ToDo(description, i % 4 == 0);
+            case 1 -> new Deadline(description, date + " 18:00", i % 4 == 0);
+            default -> new Event(description, date + " 09:00", date + " 11:00", i % 4 == 0);
+            };
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
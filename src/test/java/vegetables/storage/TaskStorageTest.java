@@ -0,0 +1,134 @@
+package vegetables.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import vegetables.exception.VeggieException;
+import vegetables.task.Task;
+import vegetables.task.ToDo;
+
+public class TaskStorageTest {
+
+    @Test
+    void persistTasks_fileEditedByAnotherProgram_refusesUntilReloadIsApplied()
+            throws IOException, VeggieException, InterruptedException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage taskStorage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0);
+        List<Task> tasks = List.of(new ToDo("Sow beans"));
+        taskStorage.persistTasks(tasks);
+        BlockingQueue<ArrayList<Task>> reloads = new LinkedBlockingQueue<>();
+        taskStorage.watch(reloads::add);
+
+        // Marking the task keeps the length of the file, and its timestamp is put back as it was
+        Path file = new File(directory, "list.txt").toPath();
+        long lastModified = file.toFile().lastModified();
+        String contents = Files.readString(file, StandardCharsets.UTF_8);
+        Files.writeString(file, contents.replace("| 0 |", "| X |"), StandardCharsets.UTF_8);
+        assertTrue(file.toFile().setLastModified(lastModified));
+
+        // The old list in memory would write over the edit
+        assertThrows(VeggieException.class, () -> taskStorage.persistTasks(tasks));
+        ArrayList<Task> reloaded = reloads.poll(5, TimeUnit.SECONDS);
+        assertNotNull(reloaded);
+        assertTrue(reloaded.get(0).isDone());
+        assertThrows(VeggieException.class, () -> taskStorage.persistTasks(tasks));
+
+        taskStorage.markApplied(reloaded);
+        ArrayList<Task> merged = new ArrayList<>(reloaded);
+        merged.add(new ToDo("Water beans"));
+        taskStorage.persistTasks(merged);
+        assertEquals(2, taskStorage.loadTasks().size());
+        taskStorage.shutdown();
+    }
+
+    @Test
+    void persistTasks_plainFormat_writesEveryDescriptionInFull() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage taskStorage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0);
+        taskStorage.persistTasks(List.of(new ToDo("Water the seedlings"), new ToDo("Water the seedlings")));
+
+        List<String> lines = Files.readAllLines(new File(directory, "list.txt").toPath(), StandardCharsets.UTF_8);
+        assertEquals(List.of("TODO | 0 | Water the seedlings", "TODO | 0 | Water the seedlings"), lines);
+    }
+
+    @Test
+    void loadTasks_unparsableLine_skipsItAndReportsItOnce() throws IOException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage taskStorage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0);
+        Files.writeString(new File(directory, "list.txt").toPath(),
+                "TODO | 0 | Sow beans\nDEADLINE | 0 | Sow peas | someday\nTODO | X | Sow peas\n",
+                StandardCharsets.UTF_8);
+
+        ArrayList<Task> tasks = taskStorage.loadTasks();
+
+        assertEquals(2, tasks.size());
+        List<String> warnings = taskStorage.takeWarnings();
+        assertEquals(1, warnings.size());
+        assertTrue(warnings.get(0).startsWith("Error parsing task from file"));
+        assertEquals(List.of(), taskStorage.takeWarnings());
+    }
+
+    @Test
+    void loadTasks_dictionaryFormat_restoresRepeatedDescriptions() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage dictionaryStorage = new TaskStorage(directory, "list", StorageFormat.DICTIONARY, 0);
+        dictionaryStorage.persistTasks(List.of(new ToDo("Water the seedlings"), new ToDo("Water the seedlings")));
+
+        // Saved in another format, but still read by a storage configured for plain text
+        ArrayList<Task> tasks = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0).loadTasks();
+        assertEquals(2, tasks.size());
+        assertEquals("Water the seedlings", tasks.get(1).getDescription());
+    }
+
+    @Test
+    void createRecoveryStorage_savedTasks_leavesTaskFileAndIsFoundAgain() throws IOException, VeggieException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage taskStorage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0);
+        Path file = new File(directory, "list.txt").toPath();
+        Files.writeString(file, "not a task file", StandardCharsets.UTF_8);
+
+        taskStorage.createRecoveryStorage().persistTasks(List.of(new ToDo("Sow beans")));
+
+        assertEquals("not a task file", Files.readString(file, StandardCharsets.UTF_8));
+        TaskStorage nextStart = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0).createRecoveryStorage();
+        assertTrue(nextStart.hasSavedTasks());
+        assertEquals(new File(new File(directory, "recovery"), "list.txt").getPath(), nextStart.getFilePath());
+        assertEquals("Sow beans", nextStart.loadTasks().get(0).getDescription());
+    }
+
+    @Test
+    void saveLatestAsync_snapshotTakenBeforeReload_isNotWrittenOverIt()
+            throws IOException, VeggieException, InterruptedException {
+        File directory = Files.createTempDirectory("vegetables-storage").toFile();
+        TaskStorage taskStorage = new TaskStorage(directory, "list", StorageFormat.PLAIN, 0);
+        taskStorage.persistTasks(List.of(new ToDo("Sow beans")));
+        BlockingQueue<ArrayList<Task>> reloads = new LinkedBlockingQueue<>();
+        taskStorage.watch(reloads::add);
+
+        Path file = new File(directory, "list.txt").toPath();
+        Files.writeString(file, "TODO | 0 | Sow peas\n", StandardCharsets.UTF_8);
+        ArrayList<Task> reloaded = reloads.poll(5, TimeUnit.SECONDS);
+        assertNotNull(reloaded);
+        taskStorage.saveLatestAsync(List.of(new ToDo("Sow beans"), new ToDo("Stale change")));
+        taskStorage.markApplied(reloaded);
+        taskStorage.shutdown();
+
+        assertEquals("Sow peas", taskStorage.loadTasks().get(0).getDescription());
+        assertEquals(1, taskStorage.loadTasks().size());
+    }
+}